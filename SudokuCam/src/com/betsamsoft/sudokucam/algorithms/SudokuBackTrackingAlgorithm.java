@@ -10,14 +10,22 @@ public class SudokuBackTrackingAlgorithm extends SudokuSolverClass {
 	}
 	
 	
+	public SudokuBackTrackingAlgorithm(int[][] _RiddleMatrix, int _boxHeight, int _boxWidth) {
+		super(_RiddleMatrix, _boxHeight, _boxWidth);
+	}
+	
+	
 	/**
 	 * Solve the Sudoku with self made Backtracking Algorithm
 	 * 
-	 * \todo: condition to check if the algorithm got stuck in an endless loop is missing!
+	 * The search can take very long for sparse or unsolvable riddles, therefore each step
+	 * checks the limits set with setLimits() and gives up if one is reached.
 	 */
 	@Override
 	public boolean solve() {
 		
+		startSearch();
+		
 		// Our class constructor checks if the given RiddleMatrix is ok or corrupt.
 		// if the RiddleMatrix is corrupt we don't even have to try
 		if( mRiddleMatrixCorrupt == true ) {
@@ -39,6 +47,12 @@ public class SudokuBackTrackingAlgorithm extends SudokuSolverClass {
 		for(int row=mMax; row>=0; row--) {
 			for(int col=mMax; col>=0; col--) {
 				
+				// 0. give up if a limit (deadline, iteration budget, cancel) is reached
+				if( limitReached() ) {
+					Log.d("SudokuBruteForceArray", "gave up: " + mOutcome);
+					return false;
+				}
+				
 				// 1. skip Immutable Fields
 				if( mImmutableMatrix[row][col] == true ) {
 					
@@ -64,8 +78,8 @@ public class SudokuBackTrackingAlgorithm extends SudokuSolverClass {
 				
 				// 2. check if field-maximum reached
 				// e.g. if we just went back to a field which has already
-				// 9 in it
-				if( mCheckMatrix[row][col] > 8 ) {
+				// the highest value (9 for a 9x9 riddle) in it
+				if( mCheckMatrix[row][col] >= mDim ) {
 					mCheckMatrix[row][col] = 0;
 					col+=1;
 					if(col > mMax) {
@@ -86,7 +100,7 @@ public class SudokuBackTrackingAlgorithm extends SudokuSolverClass {
 				
 				// 3. increment field and check
 				res = false;
-				for(int i=mCheckMatrix[row][col]+1; i<=9; i++) {
+				for(int i=mCheckMatrix[row][col]+1; i<=mDim; i++) {
 					res = checkCell(row,col,i);
 					if( res == true) {
 						mCheckMatrix[row][col] = i;
@@ -10,12 +10,21 @@ public class SudokuBackTrackingRecursiveAlgorithm extends SudokuSolverClass {
 	}
 	
 	
+	public SudokuBackTrackingRecursiveAlgorithm(int[][] _RiddleMatrix, int _boxHeight, int _boxWidth) {
+		super(_RiddleMatrix, _boxHeight, _boxWidth);
+	}
+	
+	
 	/**
 	 * Solve the Sudoku with recursive Backtrack Algorithm
+	 * 
+	 * Gives up if a limit set with setLimits() is reached.
 	 */
 	@Override
 	public boolean solve() {
 		
+		startSearch();
+		
 		// Our class constructor checks if the given RiddleMatrix is ok or corrupt.
 		// if the RiddleMatrix is corrupt we don't even have to try
 		if( mRiddleMatrixCorrupt == true ) {
@@ -25,7 +34,11 @@ public class SudokuBackTrackingRecursiveAlgorithm extends SudokuSolverClass {
 
 		// start condition for recursive solver, lets go!
 		solveRecursive(mMax,mMax);
-				
+		
+		if( hasGivenUp() ) {
+			Log.d("SudokuBruteForceArray", "gave up: " + mOutcome);
+			return false;
+		}
 		
 		// Check if Sudoku solved successfully
 		if( checkIfSolved() == false ) {
@@ -49,6 +62,11 @@ public class SudokuBackTrackingRecursiveAlgorithm extends SudokuSolverClass {
 	 */
 	public boolean solveRecursive(int row, int col) {
 		
+		// give up if a limit is reached, the callers unwind without trying further numbers
+		if( limitReached() ) {
+			return false;
+		}
+		
 		// check array index
 		if( col < 0 ) {
 			
@@ -70,7 +88,7 @@ public class SudokuBackTrackingRecursiveAlgorithm extends SudokuSolverClass {
 		
 		// current cell is empty
 		// try all numbers beginning with '1'
-		for(int i=1; i<=9; i++) {
+		for(int i=1; i<=mDim; i++) {
 			if( checkCell(row,col,i) == true ) {
 				// we found a possible solution for the current cell
 				mCheckMatrix[row][col] = i;
@@ -78,6 +96,9 @@ public class SudokuBackTrackingRecursiveAlgorithm extends SudokuSolverClass {
 				if( solveRecursive(row,col-1) == true ) {
 					return true;
 				}
+				if( hasGivenUp() ) {
+					break;
+				}
 			}
 		}
 		
@@ -0,0 +1,370 @@
+package com.betsamsoft.sudokucam.algorithms;
+
+import android.util.Log;
+
+
+public class SudokuBitboardAlgorithm extends SudokuSolverClass {
+
+	// The 81 cells are split into three bands of 27 cells (three rows each). Cell c lies in
+	// band c/27 at bit c%27, so a row is a 9-bit slice of its band.
+	private static final int BAND_MASK = (1 << 27) - 1;
+	private static final int ROW_MASK = 0x1FF;
+
+	private static final int[] BOX_MASK = new int[3];	// cells of the 3 boxes of a band
+	private static final int[] COL_MASK = new int[9];	// cells of a column within a band
+	private static final int[] PEER_MASK = new int[81*3];	// peers of cell c in band b at c*3+b
+
+	static {
+		for(int col=0; col<9; col++) {
+			COL_MASK[col] = (1 << col) | (1 << (col+9)) | (1 << (col+18));
+			BOX_MASK[col/3] |= COL_MASK[col];
+		}
+		for(int c=0; c<81; c++) {
+			int row = c/9;
+			int col = c%9;
+			for(int p=0; p<81; p++) {
+				if(p != c && (p/9 == row || p%9 == col || (p/27 == c/27 && (p%9)/3 == col/3))) {
+					PEER_MASK[c*3 + p/27] |= 1 << (p%27);
+				}
+			}
+		}
+	}
+
+	private static final int STATE_SIZE = 9*3 + 3;	// 27 digit boards + 3 unsolved boards
+	private static final int UNSOLVED = 9*3;	// index of the unsolved boards in a state
+
+	int[] mState;	// digit d may still go into the cells of board d*3+band (+ unsolved boards)
+	int[] mStack;	// saved states of the search, one per level
+	int mDepth;		// current level of the search
+
+
+	public SudokuBitboardAlgorithm(int[][] _RiddleMatrix) {
+		super(_RiddleMatrix);
+	}
+
+
+	/**
+	 * Solve the Sudoku with a Band/Digit Bitboard Algorithm (9x9 only)
+	 *
+	 * Keeps one 81-bit board per digit, split into three 27-bit bands, which marks the cells
+	 * where the digit may still go. Placing a digit clears its peers with three AND NOT's,
+	 * and singles are found word by word:
+	 * 	- naked singles: cells which are on exactly one digit board (bit-sliced counters)
+	 * 	- hidden singles: rows, columns and boxes where a digit board has exactly one cell left
+	 * If the singles run out, the search branches on a bivalue cell of the first unsolved
+	 * band if there is one, otherwise on the first unsolved cell, and saves the 30 words of
+	 * the state per level. (Always taking the cell with the fewest candidates instead was
+	 * tried, it made some hard riddles thousands of times slower.)
+	 *
+	 * Gives up if a limit set with setLimits() is reached.
+	 */
+	@Override
+	public boolean solve() {
+
+		startSearch();
+
+		// Our class constructor checks if the given RiddleMatrix is ok or corrupt.
+		// if the RiddleMatrix is corrupt we don't even have to try
+		if( mRiddleMatrixCorrupt == true ) {
+			Log.d("SudokuBitboardAlgorithm", "RiddleMatrix corrupt/undsolvable!");
+			return false;
+		}
+		if( mDim != 9 || mBoxHeight != 3 ) {
+			Log.d("SudokuBitboardAlgorithm", "only 9x9 riddles with 3x3 sections are supported!");
+			return false;
+		}
+
+		int[] grid = new int[81];
+		for(int c=80; c>=0; c--) {
+			grid[c] = mCheckMatrix[c/9][c%9];
+		}
+		boolean ok = solve(grid);
+
+		if( hasGivenUp() ) {
+			Log.d("SudokuBitboardAlgorithm", "gave up: " + mOutcome);
+			return false;
+		}
+		if( ok == false ) {
+			return false;
+		}
+		for(int c=80; c>=0; c--) {
+			mCheckMatrix[c/9][c%9] = grid[c];
+		}
+
+		// Check if Sudoku solved successfully
+		if( checkIfSolved() == false ) {
+			return false;
+		}
+
+		// Sudoku solved successfully!
+		// fill solution matrix
+		fillSolutionMatrix();
+		return true;
+	}
+
+
+	/**
+	 * Solve a Grid
+	 *
+	 * The max throughput path: solves a 9x9 grid given as a flat array, without the matrix
+	 * copies and the checks of the constructor and of solve(). Givens which conflict are
+	 * detected while they are placed. The state arrays are kept, so a single instance can
+	 * solve one grid after the other.
+	 *
+	 * @param _grid:	81 cells row by row (empty cells are zero), filled in if solved
+	 * @return true if solved, false if the grid has no solution or a limit was reached
+	 */
+	public boolean solve(int[] _grid) {
+
+		startSearch();
+
+		// all digits are possible everywhere, then place the given fields
+		if( mState == null ) {
+			mState = new int[STATE_SIZE];
+			mStack = new int[STATE_SIZE*8];	// grows if the search goes deeper
+		}
+		mDepth = 0;
+		for(int i=STATE_SIZE-1; i>=0; i--) {
+			mState[i] = BAND_MASK;
+		}
+		for(int c=80; c>=0; c--) {
+			int val = _grid[c];
+			if(val != 0 && (val < 0 || val > 9 || place(val-1, c) == false)) {
+				return false;
+			}
+		}
+
+		if( solveRecursive() == false ) {
+			return false;
+		}
+
+		// write the digit boards back into the grid
+		for(int d=8; d>=0; d--) {
+			for(int band=2; band>=0; band--) {
+				int bits = mState[d*3+band];
+				while(bits != 0) {
+					int c = band*27 + Integer.numberOfTrailingZeros(bits);
+					bits &= bits-1;
+					_grid[c] = d+1;
+				}
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Solve Sudoku Recursively
+	 *
+	 * Fills in the singles, then branches on one cell.
+	 *
+	 * @return true if all cells are solved, false if the current state has no solution
+	 */
+	private boolean solveRecursive() {
+
+		// give up if a limit is reached, the callers unwind without trying further numbers
+		if( limitReached() ) {
+			return false;
+		}
+
+		if( propagate() == false ) {
+			return false;
+		}
+
+		// take a bivalue cell of the first unsolved band, otherwise the first unsolved cell
+		int[] s = mState;
+		int cell = -1;
+		for(int band=0; band<3 && cell < 0; band++) {
+			int u = s[UNSOLVED+band];
+			if(u == 0) {
+				continue;
+			}
+			int one = 0, two = 0, three = 0;
+			for(int d=0; d<9; d++) {
+				int x = s[d*3+band] & u;
+				three |= two & x;
+				two |= one & x;
+				one |= x;
+			}
+			int bivalue = two & ~three;
+			cell = band*27 + Integer.numberOfTrailingZeros(bivalue != 0 ? bivalue : u);
+		}
+		if(cell < 0) {
+			// Sudoku end reached
+			return true;
+		}
+
+		// try each candidate of the cell on a copy of the state
+		int band = cell/27;
+		int bit = 1 << (cell%27);
+		int saved = mDepth*STATE_SIZE;
+		if(saved == mStack.length) {
+			int[] stack = new int[mStack.length*2];
+			System.arraycopy(mStack, 0, stack, 0, mStack.length);
+			mStack = stack;
+		}
+		mDepth++;
+		for(int d=0; d<9; d++) {
+			if((s[d*3+band] & bit) == 0) {
+				continue;
+			}
+			System.arraycopy(s, 0, mStack, saved, STATE_SIZE);
+			if( place(d, cell) && solveRecursive() ) {
+				mDepth--;
+				return true;
+			}
+			System.arraycopy(mStack, saved, s, 0, STATE_SIZE);
+			if( hasGivenUp() ) {
+				break;
+			}
+		}
+		mDepth--;
+		return false;
+	}
+
+
+	/**
+	 * Place a digit
+	 *
+	 * Removes the digit from all peers of the cell and all other digits from the cell.
+	 *
+	 * @param _d:	digit (0..8)
+	 * @param _c:	cell index (row*9+col)
+	 * @return false if the digit is not possible in the cell anymore, otherwise true
+	 */
+	private boolean place(int _d, int _c) {
+		int[] s = mState;
+		int band = _c/27;
+		int bit = 1 << (_c%27);
+		if((s[_d*3+band] & bit) == 0) {
+			return false;
+		}
+		s[_d*3]   &= ~PEER_MASK[_c*3];
+		s[_d*3+1] &= ~PEER_MASK[_c*3+1];
+		s[_d*3+2] &= ~PEER_MASK[_c*3+2];
+		for(int d=0; d<9; d++) {
+			if(d != _d) {
+				s[d*3+band] &= ~bit;
+			}
+		}
+		s[UNSOLVED+band] &= ~bit;
+		return true;
+	}
+
+
+	/**
+	 * Propagate Singles
+	 *
+	 * Places naked and hidden singles until nothing changes anymore.
+	 *
+	 * @return false if a cell or a unit has no candidate left, otherwise true
+	 */
+	private boolean propagate() {
+		int[] s = mState;
+		boolean changed = true;
+		while( changed == true ) {
+			changed = false;
+
+			// 1. naked singles, cells which are on exactly one digit board
+			for(int band=0; band<3; band++) {
+				int u = s[UNSOLVED+band];
+				if(u == 0) {
+					continue;
+				}
+				int one = 0, two = 0;
+				for(int d=0; d<9; d++) {
+					int x = s[d*3+band];
+					two |= one & x;
+					one |= x;
+				}
+				if((u & ~one) != 0) {
+					return false;	// a cell without candidates
+				}
+				int singles = u & ~two;
+				while(singles != 0) {
+					int pos = Integer.numberOfTrailingZeros(singles);
+					singles &= singles-1;
+					int d = 0;
+					while(d < 9 && (s[d*3+band] & (1 << pos)) == 0) {
+						d++;
+					}
+					if(d == 9 || place(d, band*27+pos) == false) {
+						return false;	// an earlier single took its last candidate
+					}
+					changed = true;
+				}
+			}
+
+			// the naked singles are cheaper, look for hidden singles only when they run out
+			if( changed == true ) {
+				continue;
+			}
+
+			// 2. hidden singles, units in which a digit has exactly one cell left
+			for(int d=0; d<9; d++) {
+				int b0 = s[d*3], b1 = s[d*3+1], b2 = s[d*3+2];
+				if(((b0 & s[UNSOLVED]) | (b1 & s[UNSOLVED+1]) | (b2 & s[UNSOLVED+2])) == 0) {
+					continue;	// all 9 places of the digit are solved
+				}
+
+				// rows and boxes lie within a band
+				for(int band=0; band<3; band++) {
+					int x = (band == 0) ? b0 : (band == 1) ? b1 : b2;
+					int u = s[UNSOLVED+band];
+					for(int i=0; i<3; i++) {
+						int unit = x & (ROW_MASK << (9*i));
+						if(unit == 0) {
+							return false;	// the digit has no place left in the row
+						}
+						if((unit & (unit-1)) == 0 && (unit & u) != 0) {
+							if(place(d, band*27+Integer.numberOfTrailingZeros(unit)) == false) {
+								return false;
+							}
+							u = s[UNSOLVED+band];
+							changed = true;
+						}
+						unit = x & BOX_MASK[i];
+						if(unit == 0) {
+							return false;	// the digit has no place left in the box
+						}
+						if((unit & (unit-1)) == 0 && (unit & u) != 0) {
+							if(place(d, band*27+Integer.numberOfTrailingZeros(unit)) == false) {
+								return false;
+							}
+							u = s[UNSOLVED+band];
+							changed = true;
+						}
+					}
+				}
+
+				// columns span all three bands, fold each band onto one row: a column has one
+				// place left if exactly one bit of it is set in exactly one band
+				int one = 0, two = 0;
+				for(int band=0; band<3; band++) {
+					int x = (band == 0) ? b0 : (band == 1) ? b1 : b2;
+					int r0 = x & ROW_MASK, r1 = (x >>> 9) & ROW_MASK, r2 = x >>> 18;
+					int bandOne = r0 | r1 | r2;
+					two |= (r0 & r1) | (r0 & r2) | (r1 & r2) | (one & bandOne);
+					one |= bandOne;
+				}
+				if(one != ROW_MASK) {
+					return false;	// the digit has no place left in a column
+				}
+				int singles = one & ~two;
+				while(singles != 0) {
+					int col = Integer.numberOfTrailingZeros(singles);
+					singles &= singles-1;
+					int band = ((b0 & COL_MASK[col]) != 0) ? 0 : ((b1 & COL_MASK[col]) != 0) ? 1 : 2;
+					int unit = ((band == 0) ? b0 : (band == 1) ? b1 : b2) & COL_MASK[col];
+					if((unit & s[UNSOLVED+band]) != 0) {
+						if(place(d, band*27+Integer.numberOfTrailingZeros(unit)) == false) {
+							return false;
+						}
+						changed = true;
+					}
+				}
+			}
+		}
+		return true;
+	}
+}
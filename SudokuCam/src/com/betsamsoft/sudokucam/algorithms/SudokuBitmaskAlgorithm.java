@@ -0,0 +1,195 @@
+package com.betsamsoft.sudokucam.algorithms;
+
+import android.util.Log;
+
+
+public class SudokuBitmaskAlgorithm extends SudokuSolverClass {
+
+	int[] mRowMask;	// used values of each row (bit v-1 is set if value v is used)
+	int[] mColMask;	// used values of each column
+	int[] mSecMask;	// used values of each section
+
+	int[] mEmptyRow;	// row index of each empty cell
+	int[] mEmptyCol;	// column index of each empty cell
+	int[] mEmptySec;	// section index of each empty cell
+	int mEmptyCount;	// number of empty cells
+
+
+	public SudokuBitmaskAlgorithm(int[][] _RiddleMatrix) {
+		super(_RiddleMatrix);
+	}
+
+
+	public SudokuBitmaskAlgorithm(int[][] _RiddleMatrix, int _boxHeight, int _boxWidth) {
+		super(_RiddleMatrix, _boxHeight, _boxWidth);
+	}
+
+
+	/**
+	 * Solve the Sudoku with a Bitmask Backtrack Algorithm
+	 *
+	 * Instead of scanning the row, the column and the section with checkCell() for every
+	 * value, the used values of each row, column and section are kept as bitmasks. The
+	 * candidates of a cell are then one OR and one NOT away. The search always continues
+	 * with the empty cell which has the fewest candidates and tries only those candidates.
+	 *
+	 * Gives up if a limit set with setLimits() is reached.
+	 */
+	@Override
+	public boolean solve() {
+
+		startSearch();
+
+		// Our class constructor checks if the given RiddleMatrix is ok or corrupt.
+		// if the RiddleMatrix is corrupt we don't even have to try
+		if( mRiddleMatrixCorrupt == true ) {
+			Log.d("SudokuBitmaskAlgorithm", "RiddleMatrix corrupt/undsolvable!");
+			return false;
+		}
+
+		initMasks();
+
+		// start condition for recursive solver, lets go!
+		solveRecursive(0);
+
+		if( hasGivenUp() ) {
+			Log.d("SudokuBitmaskAlgorithm", "gave up: " + mOutcome);
+			return false;
+		}
+
+		// Check if Sudoku solved successfully
+		if( checkIfSolved() == false ) {
+			return false;
+		}
+
+		// Sudoku solved successfully!
+		// fill solution matrix
+		fillSolutionMatrix();
+		return true;
+	}
+
+
+	/**
+	 * Initialize Masks
+	 *
+	 * Sets the used values of each row, column and section and collects the empty cells.
+	 */
+	private void initMasks() {
+		mRowMask = new int[mDim];
+		mColMask = new int[mDim];
+		mSecMask = new int[mDim];
+		mEmptyRow = new int[mDim*mDim];
+		mEmptyCol = new int[mDim*mDim];
+		mEmptySec = new int[mDim*mDim];
+		mEmptyCount = 0;
+
+		for(int row=mMax; row>=0; row--) {
+			for(int col=mMax; col>=0; col--) {
+				int sec = mSection[row][col];
+				if(mCheckMatrix[row][col] != 0) {
+					int bit = 1 << (mCheckMatrix[row][col]-1);
+					mRowMask[row] |= bit;
+					mColMask[col] |= bit;
+					mSecMask[sec] |= bit;
+				} else {
+					mEmptyRow[mEmptyCount] = row;
+					mEmptyCol[mEmptyCount] = col;
+					mEmptySec[mEmptyCount] = sec;
+					mEmptyCount++;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Solve Sudoku Recursively
+	 *
+	 * The empty cells before _depth are filled in, the others are still empty.
+	 *
+	 * @param _depth:	number of empty cells filled in so far
+	 *
+	 * @return true if all empty cells are filled in, false otherwise
+	 */
+	public boolean solveRecursive(int _depth) {
+
+		// give up if a limit is reached, the callers unwind without trying further numbers
+		if( limitReached() ) {
+			return false;
+		}
+
+		if( _depth == mEmptyCount ) {
+			// Sudoku end reached
+			return true;
+		}
+
+		// find the empty cell with the fewest candidates
+		int all = (1 << mDim) - 1;	// all values possible
+		int best = -1;
+		int bestCandidates = 0;
+		int bestCount = mDim+1;
+		for(int i=_depth; i<mEmptyCount; i++) {
+			int candidates = all & ~(mRowMask[mEmptyRow[i]] | mColMask[mEmptyCol[i]] | mSecMask[mEmptySec[i]]);
+			int count = Integer.bitCount(candidates);
+			if(count < bestCount) {
+				best = i;
+				bestCandidates = candidates;
+				bestCount = count;
+				if(count <= 1) {
+					break;	// it does not get any better
+				}
+			}
+		}
+		if(bestCount == 0) {
+			// there is no valid number for this cell, go one step back
+			return false;
+		}
+
+		// move the chosen cell to position _depth
+		swapEmptyCells(_depth, best);
+		int row = mEmptyRow[_depth];
+		int col = mEmptyCol[_depth];
+		int sec = mEmptySec[_depth];
+
+		// try only the candidates of the cell
+		while(bestCandidates != 0) {
+			int bit = Integer.lowestOneBit(bestCandidates);
+			bestCandidates &= ~bit;
+
+			mCheckMatrix[row][col] = Integer.numberOfTrailingZeros(bit)+1;
+			mRowMask[row] |= bit;
+			mColMask[col] |= bit;
+			mSecMask[sec] |= bit;
+
+			// go to next cell
+			if( solveRecursive(_depth+1) == true ) {
+				return true;
+			}
+
+			mRowMask[row] &= ~bit;
+			mColMask[col] &= ~bit;
+			mSecMask[sec] &= ~bit;
+
+			if( hasGivenUp() ) {
+				break;
+			}
+		}
+
+		// clear cell again and go one step back
+		mCheckMatrix[row][col] = 0;
+		return false;
+	}
+
+
+	/**
+	 * Swap two entries of the empty cell list
+	 *
+	 * @param _i:	index of the first entry
+	 * @param _j:	index of the second entry
+	 */
+	private void swapEmptyCells(int _i, int _j) {
+		int tmp = mEmptyRow[_i]; mEmptyRow[_i] = mEmptyRow[_j]; mEmptyRow[_j] = tmp;
+		tmp = mEmptyCol[_i]; mEmptyCol[_i] = mEmptyCol[_j]; mEmptyCol[_j] = tmp;
+		tmp = mEmptySec[_i]; mEmptySec[_i] = mEmptySec[_j]; mEmptySec[_j] = tmp;
+	}
+}
@@ -1,15 +1,13 @@
 package com.betsamsoft.sudokucam.algorithms;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.TreeSet;
 
 import android.util.Log;
 
 import com.betsamsoft.sudokucam.algorithms.dlx.Cell;
-import com.betsamsoft.sudokucam.algorithms.dlx.Node;
-import com.betsamsoft.sudokucam.algorithms.dlx.SolutionListener;
-import com.betsamsoft.sudokucam.algorithms.dlx.StandardSudoku;
+import com.betsamsoft.sudokucam.algorithms.dlx.GivenConflict;
+import com.betsamsoft.sudokucam.algorithms.dlx.GridSolutionListener;
 import com.betsamsoft.sudokucam.algorithms.dlx.SudokuSolver;
 import com.betsamsoft.sudokucam.utils.My3DArrayList;
 
@@ -19,6 +17,8 @@ public class SudokuDLXAlgorithm extends SudokuSolverClass {
 
 	My3DArrayList mValidNumberList;
 	TreeSet<Integer> mSectorChangeList;	// we use TreeSet because we wan't each sector marked only once
+	boolean mPropagating = true;	// fill in singles before the DLX search starts
+	int mSinglesFound;	// number of cells filled in by the last singles propagation
 	
 	
 	public SudokuDLXAlgorithm(int[][] _RiddleMatrix) {
@@ -26,14 +26,38 @@ public class SudokuDLXAlgorithm extends SudokuSolverClass {
 	}
 	
 	
+	public SudokuDLXAlgorithm(int[][] _RiddleMatrix, int _boxHeight, int _boxWidth) {
+		super(_RiddleMatrix, _boxHeight, _boxWidth);
+	}
+	
+	
 	/**
-	 * Solve the Sudoku with the Human Algorithm
+	 * Enable/Disable Singles Propagation
 	 * 
-	 * \todo: condition to check if the algorithm got stuck in an endless loop is missing!
+	 * @param _propagating:	true to fill in naked and hidden singles before the DLX search
+	 */
+	public void setPropagating(boolean _propagating) {
+		mPropagating = _propagating;
+	}
+	
+	
+	/**
+	 * Solve the Sudoku with the DLX Algorithm
+	 * 
+	 * The limits set with setLimits() are handed to the DLX solver, which checks them at
+	 * each node of its search.
+	 * 
+	 * Before the search the naked and hidden singles are filled in with cheap bitmask checks
+	 * (see propagateSingles()), so the DLX matrix starts with those cells already covered.
+	 * Inside the search the same rule is applied after every choice anyway: a DLX column with
+	 * only one row left is a naked single (cell column) or a hidden single (house column), and
+	 * the solver always covers the shortest column first.
 	 */
 	@Override
 	public boolean solve() {
 		
+		startSearch();
+		
 		// Our class constructor checks if the given RiddleMatrix is ok or corrupt.
 		// if the RiddleMatrix is corrupt we don't even have to try
 		if( mRiddleMatrixCorrupt == true ) {
@@ -42,35 +66,52 @@ public class SudokuDLXAlgorithm extends SudokuSolverClass {
 		}
 		
 		
-		// Prepare riddleMatrix for DLX solver
-		String puzzle = "";
+		// Fill in the singles, a contradiction means the riddle has no solution
+		int[][] grid = clone2DArray(mRiddleMatrix);
+		mSinglesFound = 0;
+		if( mPropagating == true ) {
+			mSinglesFound = propagateSingles(grid);
+			if( mSinglesFound < 0 ) {
+				Log.d("SudokuDLXAlgorithm", "no candidate left, riddle undsolvable!");
+				return false;
+			}
+		}
 		
+		// Prepare riddleMatrix for DLX solver, the cells row by row
+		int[] clues = new int[mDim*mDim];
 		for(int row=mMax; row>=0; row--) {
-			for(int col=mMax; col>=0; col--) {	
-				Integer val = mRiddleMatrix[row][col];
-				puzzle = puzzle + val.toString();
-			}
+			System.arraycopy(grid[row], 0, clues, row*mDim, mDim);
 		}
 		
-		// Solve with DLX
-		StandardSudoku stdSudoku = new StandardSudoku(puzzle);
-        SudokuSolver solver = new SudokuSolver(stdSudoku);
-        solver.addSolutionListener(new SolutionListener() {
-            public boolean solutionFound(final List<Node> solutionNodes) {
+		// Solve with DLX, the solver takes the geometry directly (no puzzle string to parse)
+        SudokuSolver solver = new SudokuSolver(mDim, mBoxHeight, mBoxWidth, clues);
+        solver.addGridSolutionListener(new GridSolutionListener() {
+            public boolean solutionFound(final int[] grid) {
             	
-                Iterator<Node> iterator = solutionNodes.iterator();
-                while (iterator.hasNext()) {
-                    Node node = (Node) iterator.next();
-                    int index = node.applicationData / mDim;
-                    int value = node.applicationData % mDim + 1;
-                    mCheckMatrix[((mDim*mDim-1)-index)/mDim][((mDim*mDim-1)-index)%mDim] = value;
-                }
+            	for(int row=mMax; row>=0; row--) {
+            		System.arraycopy(grid, row*mDim, mCheckMatrix[row], 0, mDim);
+            	}
                 
                 return true;	// tell the solver to stop after first found solution
             }
         });
-        solver.placeGivens(stdSudoku.getOriginalPuzzle());
+        solver.setLimits(mLimits);
+        List<GivenConflict> conflicts = solver.getClueConflicts();
+        if( conflicts.isEmpty() == false ) {
+        	// e.g. a misread digit, the solver skipped the conflicting givens
+        	for(int i=0; i<conflicts.size(); i++) {
+        		Log.d("SudokuDLXAlgorithm", "conflicting given: " + conflicts.get(i));
+        	}
+        	mRiddleMatrixCorrupt = true;
+        	return false;
+        }
         solver.solve();
+        
+        mOutcome = solver.getOutcome();
+        if( hasGivenUp() ) {
+        	Log.d("SudokuDLXAlgorithm", "gave up: " + mOutcome);
+        	return false;
+        }
 		
 		// Check if Sudoku solved successfully
 		if( checkIfSolved() == false ) {
@@ -82,4 +123,102 @@ public class SudokuDLXAlgorithm extends SudokuSolverClass {
 		fillSolutionMatrix();
 		return true;
 	}
+	
+	
+	/**
+	 * Propagate Singles
+	 * 
+	 * Fills in naked singles (a cell with only one candidate left) and hidden singles (a value
+	 * with only one cell left in a row, column or section) until nothing changes anymore.
+	 * The used values of each row, column and section are kept as bitmasks (bit v-1 is set if
+	 * value v is used), so the candidates of a cell are one OR and one NOT away.
+	 * 
+	 * @param _grid:	grid to fill in (empty cells are zero)
+	 * @return number of cells filled in, or -1 if a cell or a unit has no candidate left
+	 */
+	private int propagateSingles(int[][] _grid) {
+		int all = (1 << mDim) - 1;	// all values possible
+		int[] rowMask = new int[mDim];
+		int[] colMask = new int[mDim];
+		int[] secMask = new int[mDim];
+		
+		for(int row=mMax; row>=0; row--) {
+			for(int col=mMax; col>=0; col--) {
+				if(_grid[row][col] != 0) {
+					int bit = 1 << (_grid[row][col]-1);
+					rowMask[row] |= bit;
+					colMask[col] |= bit;
+					secMask[mSection[row][col]] |= bit;
+				}
+			}
+		}
+		
+		int found = 0;
+		boolean changed = true;
+		while( changed == true ) {
+			changed = false;
+			
+			// 1. naked singles
+			for(int row=mMax; row>=0; row--) {
+				for(int col=mMax; col>=0; col--) {
+					if(_grid[row][col] != 0) {
+						continue;
+					}
+					int sec = mSection[row][col];
+					int candidates = all & ~(rowMask[row] | colMask[col] | secMask[sec]);
+					if(candidates == 0) {
+						return -1;
+					}
+					if(Integer.bitCount(candidates) == 1) {
+						_grid[row][col] = Integer.numberOfTrailingZeros(candidates)+1;
+						rowMask[row] |= candidates;
+						colMask[col] |= candidates;
+						secMask[sec] |= candidates;
+						found++;
+						changed = true;
+					}
+				}
+			}
+			
+			// 2. hidden singles, unit 0..mMax are the rows, then the columns, then the sections
+			for(int unit=3*mDim-1; unit>=0; unit--) {
+				int type = unit/mDim;
+				int i = unit%mDim;
+				int[] mask = (type == 0) ? rowMask : (type == 1) ? colMask : secMask;
+				int missing = all & ~mask[i];
+				
+				while(missing != 0) {
+					int bit = Integer.lowestOneBit(missing);
+					missing &= ~bit;
+					
+					// count the cells of the unit which can still take the value
+					int count = 0;
+					int singleRow = 0;
+					int singleCol = 0;
+					for(int k=mMax; k>=0; k--) {
+						int row = (type == 0) ? i : (type == 1) ? k : mSectionRow[i][k];
+						int col = (type == 0) ? k : (type == 1) ? i : mSectionCol[i][k];
+						if(_grid[row][col] == 0
+								&& ((rowMask[row] | colMask[col] | secMask[mSection[row][col]]) & bit) == 0) {
+							count++;
+							singleRow = row;
+							singleCol = col;
+						}
+					}
+					if(count == 0) {
+						return -1;
+					}
+					if(count == 1) {
+						_grid[singleRow][singleCol] = Integer.numberOfTrailingZeros(bit)+1;
+						rowMask[singleRow] |= bit;
+						colMask[singleCol] |= bit;
+						secMask[mSection[singleRow][singleCol]] |= bit;
+						found++;
+						changed = true;
+					}
+				}
+			}
+		}
+		return found;
+	}
 }
@@ -21,14 +21,21 @@ public class SudokuHumanAlgorithm extends SudokuSolverClass {
 	}
 	
 	
+	public SudokuHumanAlgorithm(int[][] _RiddleMatrix, int _boxHeight, int _boxWidth) {
+		super(_RiddleMatrix, _boxHeight, _boxWidth);
+	}
+	
+	
 	/**
 	 * Solve the Sudoku with the Human Algorithm
 	 * 
-	 * \todo: condition to check if the algorithm got stuck in an endless loop is missing!
+	 * Gives up if a limit set with setLimits() is reached while the sectors are processed.
 	 */
 	@Override
 	public boolean solve() {
 		
+		startSearch();
+		
 		// Our class constructor checks if the given RiddleMatrix is ok or corrupt.
 		// if the RiddleMatrix is corrupt we don't even have to try
 		if( mRiddleMatrixCorrupt == true ) {
@@ -51,7 +58,7 @@ public class SudokuHumanAlgorithm extends SudokuSolverClass {
 				}
 				
 				// create List with all valid numbers for the current cell
-				for(int i=1; i<=9; i++) {
+				for(int i=1; i<=mDim; i++) {
 					if( checkCell(row,col,i) == true ) {
 						mValidNumberList.add(row, col, i);
 					}
@@ -72,21 +79,23 @@ public class SudokuHumanAlgorithm extends SudokuSolverClass {
 				checkListSize(row, col);
 				
 				// 4. check if there is a unique number in the current Sector
-				if( (row%3 == 2) && (col%3 == 2) ) {
+				if( (row%mBoxHeight == mBoxHeight-1) && (col%mBoxWidth == mBoxWidth-1) ) {
 					checkSectorSolution(row, col);
 				}
 				
 				// 5. Check if any sector changed
 				while( mSectorChangeList.isEmpty() == false) {
-					Integer s = mSectorChangeList.first();
 					
-					// recalculate sector information -> see addToSectorChangeList() if you are confused about the mDim!
-					int rS = s/mDim;
-					int cS = s%mDim;
+					// give up if a limit (deadline, iteration budget, cancel) is reached
+					if( limitReached() ) {
+						Log.d("SudokuHumanAlgorithm", "gave up: " + mOutcome);
+						return false;
+					}
+					Integer s = mSectorChangeList.first();
 					
-					// calculate coordinates for checkmatrix
-					int r = (rS*3);
-					int c = (cS*3);
+					// calculate coordinates for checkmatrix (first cell of the sector)
+					int r = mSectionRow[s][0];
+					int c = mSectionCol[s][0];
 					checkSectorSolution(r,c);
 					
 					// remove processed entry
@@ -116,13 +125,8 @@ public class SudokuHumanAlgorithm extends SudokuSolverClass {
 	 */
 	private void addToSectorChangeList(int _row, int _col) {
 		
-		// calculate sector
-		int rS = (_row/3);
-		int cS = (_col/3);
-		
-		// because mSectorChangeList is a TreeSet which does not allow ArrayLists we have to create 
-		// an enumerable type. The costs are that we have to calculate rS and cS after extracting the created type.
-		Integer s  = rS*mDim+cS;
+		// the sector index is looked up in the section table
+		Integer s  = mSection[_row][_col];
 		
 		// add to SectorChangeList
 		mSectorChangeList.add(s);
@@ -160,10 +164,11 @@ public class SudokuHumanAlgorithm extends SudokuSolverClass {
 		int[] sectorCount = new int[mDim];
 
 		// create sectorList with all Lists from the current sector
+		int sec = mSection[_row][_col];
 		for(int i=mMax; i>=0; i--) {
 			
-			int r = (_row/3)*3+(i/3);
-			int c = (_col/3)*3+(i%3);
+			int r = mSectionRow[sec][i];
+			int c = mSectionCol[sec][i];
 			
 			List<Object> cellValidNumberList = mValidNumberList.get(r, c);
 			
@@ -189,8 +194,8 @@ public class SudokuHumanAlgorithm extends SudokuSolverClass {
 				// find cell within sector
 				for(int j=mMax; j>=0; j--) 
 				{	
-					int r = (_row/3)*3+(j/3);
-					int c = (_col/3)*3+(j%3);
+					int r = mSectionRow[sec][j];
+					int c = mSectionCol[sec][j];
 					
 					if( mValidNumberList.get(r,c).remove((Integer) sectorSolution) == true ) {
 						// cell found
@@ -239,7 +244,7 @@ public class SudokuHumanAlgorithm extends SudokuSolverClass {
 	 * If the current ValidNumberList size equals '1' we just do the same again from here on and
 	 * remove this cellSolution as well from all affected Lists, aso..
 	 * 
-	 * checkListSize() and this function call each other recursively. The number of recursion calls is limited to the maximum of 9 calls. 
+	 * checkListSize() and this function call each other recursively. The number of recursion calls is limited to the maximum of mDim calls. 
 	 * It is therefore guaranteed that the recursion is not critical.
 	 * 
 	 * @param _row	:	current row
@@ -265,10 +270,11 @@ public class SudokuHumanAlgorithm extends SudokuSolverClass {
 		}	
 		
 		// check section
+		int sec = mSection[_row][_col];
 		for( int i=mMax; i>=0; i--) {
 			
-			int r = (_row/3)*3+(i/3);
-			int c = (_col/3)*3+(i%3);
+			int r = mSectionRow[sec][i];
+			int c = mSectionCol[sec][i];
 			
 			if( mValidNumberList.get(r,c).remove((Object) _cellSolution) == true ) {
 				checkListSize(r,c);
@@ -1,5 +1,7 @@
 package com.betsamsoft.sudokucam.algorithms;
 
+import com.betsamsoft.sudokucam.algorithms.dlx.SearchLimits;
+import com.betsamsoft.sudokucam.algorithms.dlx.SearchOutcome;
 
 
 public abstract class SudokuSolverClass {
@@ -13,26 +15,101 @@ public abstract class SudokuSolverClass {
 	int mDim;	// array dimension
 	int mMax;	// maximum array index
 
+	int mBoxHeight;	// number of rows of a section
+	int mBoxWidth;	// number of columns of a section
+	int[][] mSection;	// section index of each cell
+	int[][] mSectionRow;	// row index of the i-th cell of each section
+	int[][] mSectionCol;	// column index of the i-th cell of each section
+
+	SearchLimits mLimits;	// deadline, iteration budget and cancel flag of solve() (null = unbounded)
+	SearchOutcome mOutcome = SearchOutcome.COMPLETED;	// how the last solve() ended
+	long mIterations;	// iterations done by the current solve()
+
 	
 	/**
 	 * Constructor
 	 * 
 	 * prepares the riddle matrix, the check matrix and the immutable matrix
+	 * The sections are as square as possible, e.g. 3x3 for 9x9, 2x3 for 6x6 or 3x4 for 12x12.
 	 * 
 	 * @param _RiddleMatrix
 	 */
 	public SudokuSolverClass(int[][] _RiddleMatrix) {
+		this(_RiddleMatrix, defaultBoxHeight(_RiddleMatrix.length), _RiddleMatrix.length/defaultBoxHeight(_RiddleMatrix.length));
+	}
+	
+	
+	/**
+	 * Constructor
+	 * 
+	 * prepares the riddle matrix, the check matrix, the immutable matrix and the section tables
+	 * 
+	 * @param _RiddleMatrix
+	 * @param _boxHeight:	number of rows of a section
+	 * @param _boxWidth:	number of columns of a section (_boxHeight*_boxWidth has to be the array dimension)
+	 */
+	public SudokuSolverClass(int[][] _RiddleMatrix, int _boxHeight, int _boxWidth) {
+		if(_boxHeight < 1 || _boxWidth < 1 || _boxHeight*_boxWidth != _RiddleMatrix.length) {
+			throw new IllegalArgumentException("Invalid section size " + _boxHeight + "x" + _boxWidth
+					+ " for a " + _RiddleMatrix.length + "x" + _RiddleMatrix.length + " riddle");
+		}
+		
 		mRiddleMatrix = clone2DArray(_RiddleMatrix);	// save RiddleMatrix
 		mCheckMatrix = clone2DArray(_RiddleMatrix);	// prepare Checkmatrix
 		mImmutableMatrix = initImmutableMatrix(_RiddleMatrix); // mark given fields
 
 		mDim = mCheckMatrix.length;	// array dimension
 		mMax = mDim-1;	// maximum array index
+		
+		mBoxHeight = _boxHeight;
+		mBoxWidth = _boxWidth;
+		initSectionTables();
 
 		mRiddleMatrixCorrupt =! checkMatrix();		// check if RiddleMatrix is ok
 	}
 	
 	
+	/**
+	 * Default Section Height
+	 * 
+	 * @param _dim:	array dimension
+	 * @return the largest divisor of _dim which is not larger than its square root
+	 */
+	private static int defaultBoxHeight(int _dim) {
+		int height = 1;
+		for(int h=2; h*h<=_dim; h++) {
+			if(_dim%h == 0) {
+				height = h;
+			}
+		}
+		return height;
+	}
+	
+	
+	/**
+	 * Initialize Section Tables
+	 * 
+	 * The sections are numbered row by row, as are the cells within a section. The tables
+	 * replace the divisions and modulos which would otherwise be needed for every access.
+	 */
+	private void initSectionTables() {
+		int sectionsPerRow = mDim/mBoxWidth;
+		mSection = new int[mDim][mDim];
+		mSectionRow = new int[mDim][mDim];
+		mSectionCol = new int[mDim][mDim];
+		
+		for(int row=mMax; row>=0; row--) {
+			for(int col=mMax; col>=0; col--) {
+				int sec = (row/mBoxHeight)*sectionsPerRow + (col/mBoxWidth);
+				int i = (row%mBoxHeight)*mBoxWidth + (col%mBoxWidth);
+				mSection[row][col] = sec;
+				mSectionRow[sec][i] = row;
+				mSectionCol[sec][i] = col;
+			}
+		}
+	}
+	
+	
 	/**
 	 * Attention!: 
 	 * The clone() command does work for deep copies with one dimensional arrays
@@ -158,8 +235,10 @@ public abstract class SudokuSolverClass {
 		}	
 		
 		// check section
+		int[] secRow = mSectionRow[mSection[_row][_col]];
+		int[] secCol = mSectionCol[mSection[_row][_col]];
 		for( int i=mMax; i>=0; i--) {
-			if(mCheckMatrix[(_row/3)*3+(i/3)][(_col/3)*3+(i%3)] == _val) { return false; }
+			if(mCheckMatrix[secRow[i]][secCol[i]] == _val) { return false; }
 		}
 		
 		// if we got here the entry is valid
@@ -177,6 +256,9 @@ public abstract class SudokuSolverClass {
 		for(int row=mMax; row>=0; row--) {
 			for(int col=mMax; col>=0; col--) {
 				
+				if(mCheckMatrix[row][col] < 0 || mCheckMatrix[row][col] > mDim) {
+					return false;	// not a value of this riddle
+				}
 				if(mCheckMatrix[row][col] != 0) {
 					
 					// for the check we need to clear the current cell in the matrix
@@ -200,5 +282,70 @@ public abstract class SudokuSolverClass {
 	}
 	
 	
+	/**
+	 * Set Search Limits
+	 * 
+	 * Bounds every following solve() by a deadline, an iteration budget and a cancel flag.
+	 * If a limit is reached solve() gives up and returns false, and hasGivenUp() returns true.
+	 * 
+	 * @param _limits:	limits of the search, null to solve without limits
+	 */
+	public void setLimits(SearchLimits _limits) {
+		mLimits = _limits;
+	}
+	
+	
+	/**
+	 * Check if the last solve() gave up
+	 * 
+	 * @return true if solve() stopped because a limit was reached, false if it ran to the end
+	 */
+	public boolean hasGivenUp() {
+		return mOutcome.hasGivenUp();
+	}
+	
+	
+	/**
+	 * Get Outcome
+	 * 
+	 * @return	:	how the last solve() ended (completed, cancelled, timed out or budget exhausted)
+	 */
+	public SearchOutcome getOutcome() {
+		return mOutcome;
+	}
+	
+	
+	/**
+	 * Start Search
+	 * 
+	 * Has to be called at the beginning of each solve() to reset the iteration counter
+	 * and the outcome.
+	 */
+	protected void startSearch() {
+		mIterations = 0;
+		mOutcome = SearchOutcome.COMPLETED;
+	}
+	
+	
+	/**
+	 * Check Search Limits
+	 * 
+	 * Counts one iteration and checks the limits. Cheap enough to be called in the inner loop.
+	 * 
+	 * @return true if the solver has to give up, otherwise false
+	 */
+	protected boolean limitReached() {
+		if(mLimits == null) {
+			return false;
+		}
+		SearchOutcome outcome = mLimits.check(++mIterations);
+		if(outcome == null) {
+			return false;
+		}
+		mOutcome = outcome;
+		return true;
+	}
+	
+	
 	public abstract boolean solve();
 }
@@ -22,12 +22,13 @@
 package com.betsamsoft.sudokucam.algorithms.dlx;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.StringTokenizer;
 
+import com.betsamsoft.sudokucam.algorithms.dlx.Options.BlockType;
 import com.betsamsoft.sudokucam.algorithms.dlx.Options.CreateAction;
 
 
@@ -39,6 +40,9 @@ import com.betsamsoft.sudokucam.algorithms.dlx.Options.CreateAction;
  */
 public abstract class AbstractPuzzleModel {
 
+    /** The options of this sudoku. */
+    private final PuzzleConfig config;
+
     /** The values that make up the original (unsolved) puzzle. */
     protected final int[] originalPuzzle;
 
@@ -69,39 +73,37 @@ public abstract class AbstractPuzzleModel {
     /** A collection containing every <code>House</code> (row, column, block, etc.). */
     private final List<House> houses = new ArrayList<House>();
 
-    /** Constructs an <code>AbstractPuzzleModel</code>. */
-    AbstractPuzzleModel() {
-        Options options = Options.getInstance();
-        gridSize = options.getGridSize();
-        workGrid = new ArrayList<Cell>();
-        originalPuzzle = new int[gridSize * gridSize];
+    /** The index tables of the houses, or <code>null</code> until they are needed. */
+    private GridGeometry geometry;
 
-        int[][] blockIndexes = createBlockIndexes();
-        createHouses();
-        createCells(blockIndexes);
+    /** Constructs an <code>AbstractPuzzleModel</code> with the options of the singleton. */
+    AbstractPuzzleModel() {
+        this(Options.getInstance().toConfig());
     }
 
     /**
-     * Constructs an <code>AbstractPuzzleModel</code> from a <code>String</code>.
+     * Constructs an <code>AbstractPuzzleModel</code> from a <code>String</code>. The options are
+     * read from the first line of the <code>String</code> (see
+     * <code>PuzzleConfig.fromPuzzleString</code>), the <code>Options</code> singleton is neither
+     * read nor changed.
      *
      * @param puzzleString  A <code>String</code> containing a sudoku.
      */
     AbstractPuzzleModel(final String puzzleString) {
-        Options options = Options.getInstance();
-        options.setDefaults();
-        options.setCreateAction(Options.CreateAction.LOAD);
-
-        StringTokenizer st = new StringTokenizer(puzzleString, "\n");
-
-        String line = st.nextToken();
-        if (line.charAt(0) == ':') {
-            options.load(line);
-        }
+        this(PuzzleConfig.fromPuzzleString(puzzleString));
+    }
 
-        gridSize = options.getGridSize();
+    /**
+     * Constructs an <code>AbstractPuzzleModel</code>.
+     *
+     * @param config  The options of the sudoku.
+     */
+    AbstractPuzzleModel(final PuzzleConfig config) {
+        this.config = config;
+        gridSize = config.getGridSize();
         workGrid = new ArrayList<Cell>();
-
         originalPuzzle = new int[gridSize * gridSize];
+
         int[][] blockIndexes = createBlockIndexes();
         createHouses();
         createCells(blockIndexes);
@@ -113,24 +115,23 @@ public abstract class AbstractPuzzleModel {
      * @return  An array containing the block index for each cell.
      */
     private int[][] createBlockIndexes() {
-        Options options = Options.getInstance();
-        Options.CreateAction createAction = options.getCreateAction();
+        CreateAction createAction = config.getCreateAction();
 
         int[][] blockIndexes = null;
-        if (options.getBlockType() == Options.BlockType.RECTANGULAR) {
+        if (config.getBlockType() == BlockType.RECTANGULAR) {
             blockIndexes = new int[gridSize][gridSize];
             for (int row = 0; row < gridSize; row++) {
                 for (int column = 0; column < gridSize; column++) {
                     blockIndexes[row][column] =
-                            row / options.getBlockHeight() * options.getBlockHeight()
-                            + column / options.getBlockWidth();
+                            row / config.getBlockHeight() * config.getBlockHeight()
+                            + column / config.getBlockWidth();
                 }
             }
         } else {
 
             // JIGSAW
-            if (createAction == Options.CreateAction.GENERATE) {
-                blockIndexes = JigsawGenerator.getInstance().run(gridSize);
+            if (createAction == CreateAction.GENERATE) {
+                blockIndexes = new JigsawGenerator().run(gridSize);
             } else {
 
                 // (CREATE_EMPTY or LOAD) + JIGSAW. Set all of the indexes to -1.
@@ -148,35 +149,30 @@ public abstract class AbstractPuzzleModel {
 
     /** Creates this sudoku's row, column, and -- if appropriate -- diagonal houses. */
     private void createHouses() {
-        MessageBundle messageBundle = MessageBundle.getInstance();
-        Options options = Options.getInstance();
-        Options.CreateAction createAction = options.getCreateAction();
+        CreateAction createAction = config.getCreateAction();
 
-        // Create the houses.
+        // Create the houses. Their names are only formatted if they are asked for.
         for (int i = 0; i < gridSize; i++) {
-            String[] houseIndex = {
-                String.valueOf(i + 1),
-            };
-            House row = new House(messageBundle.getString("row.name", houseIndex));
+            House row = new House("row.name", i + 1, gridSize);
             rows.add(row);
             houses.add(row);
-            House column = new House(messageBundle.getString("column.name", houseIndex));
+            House column = new House("column.name", i + 1, gridSize);
             columns.add(column);
             houses.add(column);
             if (createAction == CreateAction.GENERATE
-                    || options.getBlockType() == Options.BlockType.RECTANGULAR) {
-                House block = new House(messageBundle.getString("block.name", houseIndex));
+                    || config.getBlockType() == BlockType.RECTANGULAR) {
+                House block = new House("block.name", i + 1, gridSize);
                 blocks.add(block);
                 houses.add(block);
             }
         }
 
         // If using diagonals, create those houses.
-        if (options.isUsingDiagonals()) {
-            House diagonal1 = new House(messageBundle.getString("diagonal.\\"));
+        if (config.isUsingDiagonals()) {
+            House diagonal1 = new House("diagonal.\\", 0, gridSize);
             diagonals.add(diagonal1);
             houses.add(diagonal1);
-            House diagonal2 = new House(messageBundle.getString("diagonal./"));
+            House diagonal2 = new House("diagonal./", 0, gridSize);
             diagonals.add(diagonal2);
             houses.add(diagonal2);
         }
@@ -188,8 +184,7 @@ public abstract class AbstractPuzzleModel {
      * @param blockIndexes  Array containing the block index for each <code>Cell</code>.
      */
     private void createCells(final int[][] blockIndexes) {
-        Options options = Options.getInstance();
-        Options.CreateAction createAction = options.getCreateAction();
+        CreateAction createAction = config.getCreateAction();
 
         for (int row = 0; row < gridSize; row++) {
             for (int column = 0; column < gridSize; column++) {
@@ -199,14 +194,15 @@ public abstract class AbstractPuzzleModel {
                 ((House) columns.get(column)).addCell(cell);
                 int blockIndex = blockIndexes[row][column];
                 if (createAction == CreateAction.GENERATE
-                        || options.getBlockType() == Options.BlockType.RECTANGULAR) {
+                        || config.getBlockType() == BlockType.RECTANGULAR) {
                     ((House) blocks.get(blockIndex)).addCell(cell);
                     cell.setBlockIndex(blockIndex);
-                    cell.setStateAndValue(CellState.UNSOLVED, 0, null);
+
+                    // A new cell is already unsolved, so its houses need not be told.
                 } else {
                     cell.setStateAndValue(CellState.UNASSIGNED, 0, null);
                 }
-                if (options.isUsingDiagonals()) {
+                if (config.isUsingDiagonals()) {
                     if (row == column) {
                         House diagonal1 = (House) diagonals.get(0);
                         diagonal1.addCell(cell);
@@ -220,6 +216,15 @@ public abstract class AbstractPuzzleModel {
         }
     }
 
+    /**
+     * Gets the options of this sudoku.
+     *
+     * @return  The options of this sudoku.
+     */
+    public PuzzleConfig getConfig() {
+        return config;
+    }
+
     /**
      * Gets the size of the puzzle grid.
      *
@@ -239,6 +244,68 @@ public abstract class AbstractPuzzleModel {
         return originalPuzzle;
     }
 
+    /**
+     * Loads a puzzle into this sudoku: the non-zero values become givens and the other cells
+     * become unsolved, with the values that no buddy contains as candidates.
+     * <p>
+     * Unlike setting the cells one by one, which makes every house strip the value from all of
+     * its cells, this writes the cells without telling their listeners. The values used in each
+     * house are gathered into a bit mask, the candidates of each cell are the values missing from
+     * the masks of its houses, and the unsolved cells of each house are rebuilt once at the end.
+     *
+     * @param puzzle  The value of each cell, row by row (0 for an empty cell).
+     */
+    public void loadPuzzle(final int[] puzzle) {
+        int numberOfCells = gridSize * gridSize;
+        if (puzzle.length != numberOfCells) {
+            throw new IllegalArgumentException("Expected " + numberOfCells
+                    + " values, got " + puzzle.length);
+        }
+        for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++) {
+            if (puzzle[cellIndex] < 0 || puzzle[cellIndex] > gridSize) {
+                throw new IllegalArgumentException("Invalid value " + puzzle[cellIndex]
+                        + " of cell " + cellIndex);
+            }
+        }
+
+        // The values used by the houses of each cell (bit v for value v, bit 0 for empty cells).
+        long[] usedValues = new long[numberOfCells];
+        int[] houseCells = new int[numberOfCells];
+        Iterator<House> houseIterator = houses.iterator();
+        while (houseIterator.hasNext()) {
+            House house = (House) houseIterator.next();
+            long used = 0;
+            int count = 0;
+            Iterator<Cell> cells = house.getAllCells();
+            while (cells.hasNext()) {
+                Cell cell = (Cell) cells.next();
+                int cellIndex = cell.getRow() * gridSize + cell.getColumn();
+                houseCells[count++] = cellIndex;
+                used |= 1L << puzzle[cellIndex];
+            }
+            for (int i = 0; i < count; i++) {
+                usedValues[houseCells[i]] |= used;
+            }
+        }
+
+        long allValues = ((1L << gridSize) - 1) << 1;
+        for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++) {
+            int value = puzzle[cellIndex];
+            originalPuzzle[cellIndex] = value;
+            Cell cell = (Cell) workGrid.get(cellIndex);
+            if (value > 0) {
+                cell.load(CellState.GIVEN, value, 0L);
+            } else {
+                cell.load(CellState.UNSOLVED, 0, allValues & ~usedValues[cellIndex]);
+            }
+        }
+
+        houseIterator = houses.iterator();
+        while (houseIterator.hasNext()) {
+            ((House) houseIterator.next()).resetUnsolvedCells();
+        }
+    }
+
     /**
      * Gets the <code>Cell</code> at the specified location.
      *
@@ -294,6 +361,7 @@ public abstract class AbstractPuzzleModel {
     public void addBlock(final House block) {
         blocks.add(block);
         houses.add(block);
+        geometry = null;
     }
 
     /**
@@ -380,6 +448,50 @@ public abstract class AbstractPuzzleModel {
         return getCellAt(row, column).getBlockIndex();
     }
 
+    /**
+     * Gets the index tables (houses of each cell, peers of each cell, etc.) of this sudoku. The
+     * tables are shared with every other puzzle and solver of the same layout.
+     *
+     * @return  The geometry of this sudoku.
+     * @throws IllegalStateException  If some cells have not been added to their houses yet (e.g.
+     *                                while the blocks of a jigsaw sudoku are created).
+     */
+    public GridGeometry getGeometry() {
+        GridGeometry result = findGeometry();
+        if (result == null) {
+            throw new IllegalStateException("The houses of the sudoku are not complete");
+        }
+        return result;
+    }
+
+    /**
+     * Gets the index tables of this sudoku, creating them when every house is complete.
+     *
+     * @return  The geometry of this sudoku, or <code>null</code> if a house is not complete.
+     */
+    private GridGeometry findGeometry() {
+        if (geometry == null) {
+            int[][] houseCells = new int[houses.size()][gridSize];
+            for (int h = 0; h < houseCells.length; h++) {
+                int i = 0;
+                Iterator<Cell> cells = ((House) houses.get(h)).getAllCells();
+                while (cells.hasNext()) {
+                    if (i == gridSize) {
+                        return null;
+                    }
+                    Cell cell = (Cell) cells.next();
+                    houseCells[h][i++] = cell.getRow() * gridSize + cell.getColumn();
+                }
+                if (i < gridSize) {
+                    return null;
+                }
+                Arrays.sort(houseCells[h]);
+            }
+            geometry = GridGeometry.getInstance(gridSize, houseCells);
+        }
+        return geometry;
+    }
+
     /**
      * Gets the buddies of a specified <code>Cell</code>.
      *
@@ -389,6 +501,11 @@ public abstract class AbstractPuzzleModel {
      *              <code>Cell</code>).
      */
     public Set<Cell> getBuddies(final Cell cell) {
+        GridGeometry grid = findGeometry();
+        if (grid != null) {
+            return getBuddies(grid, cell, false);
+        }
+
         Set<Cell> buddies = new HashSet<Cell>();
 
         Iterator<House> iterator = houses.iterator();
@@ -416,6 +533,11 @@ public abstract class AbstractPuzzleModel {
      *              <code>Cell</code> that shares a house with the specified <code>Cell</code>).
      */
     public Set<Cell> getUnsolvedBuddies(final Cell cell) {
+        GridGeometry grid = findGeometry();
+        if (grid != null) {
+            return getBuddies(grid, cell, true);
+        }
+
         Set<Cell> buddies = new HashSet<Cell>();
 
         Iterator<House> iterator = houses.iterator();
@@ -434,4 +556,33 @@ public abstract class AbstractPuzzleModel {
         buddies.remove(cell);
         return buddies;
     }
+
+    /**
+     * Gets the buddies of a <code>Cell</code> from the peer table. As when the houses are walked,
+     * a <code>Cell</code> that is not unsolved has no buddies.
+     *
+     * @param grid          The geometry of this sudoku.
+     * @param cell          A <code>Cell</code>.
+     * @param unsolvedOnly  <code>true</code> to leave out the buddies that are not unsolved.
+     * @return              A collection containing the buddies.
+     */
+    private Set<Cell> getBuddies(
+            final GridGeometry grid,
+            final Cell cell,
+            final boolean unsolvedOnly) {
+        int cellIndex = cell.getRow() * gridSize + cell.getColumn();
+        int numberOfPeers = grid.getNumberOfPeers(cellIndex);
+        Set<Cell> buddies = new HashSet<Cell>(numberOfPeers * 2);
+        if (cell.getState() != CellState.UNSOLVED) {
+            return buddies;
+        }
+
+        for (int i = 0; i < numberOfPeers; i++) {
+            Cell buddy = (Cell) workGrid.get(grid.getPeer(cellIndex, i));
+            if (!unsolvedOnly || buddy.getState() == CellState.UNSOLVED) {
+                buddies.add(buddy);
+            }
+        }
+        return buddies;
+    }
 }
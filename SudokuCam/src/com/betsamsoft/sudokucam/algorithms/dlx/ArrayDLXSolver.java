@@ -0,0 +1,1640 @@
+package com.betsamsoft.sudokucam.algorithms.dlx;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+/**
+ * This class implements a solver for an exact cover problem using Donald Knuth's Algorithm X
+ * (dancing links), just like <code>AbstractDLXSolver</code>. Instead of linking
+ * <code>Node</code> and <code>ColumnHeader</code> objects, it keeps the whole matrix in parallel
+ * <code>int</code> arrays, so covering and uncovering walk flat arrays instead of objects spread
+ * all over the heap.
+ * <p>
+ * Every node of the matrix is an index into the arrays. Index 0 is the root node, indexes
+ * 1 through <code>numberOfColumns</code> are the column headers, and all other indexes are the
+ * nodes of the matrix rows. All columns must be created before the first node is added.
+ */
+public abstract class ArrayDLXSolver {
+
+    /** The index of the root node (master header) of the dancing links matrix. */
+    private static final int ROOT = 0;
+
+    /** The search mode that counts the solutions. */
+    private static final int COUNTING = 0;
+
+    /** The search mode that reports each solution to the listeners. */
+    private static final int REPORTING = 1;
+
+    /** The search mode that suspends the search at each solution. */
+    private static final int YIELDING = 2;
+
+    /** The number of nodes for which room is made when no better estimate is available. */
+    private static final int DEFAULT_CAPACITY = 256;
+
+    /** The left neighbor of each node. */
+    private int[] left = new int[DEFAULT_CAPACITY];
+
+    /** The right neighbor of each node. */
+    private int[] right = new int[DEFAULT_CAPACITY];
+
+    /** The upper neighbor of each node. */
+    private int[] up = new int[DEFAULT_CAPACITY];
+
+    /** The lower neighbor of each node. */
+    private int[] down = new int[DEFAULT_CAPACITY];
+
+    /** The column header of each node. */
+    private int[] column = new int[DEFAULT_CAPACITY];
+
+    /** The index of the matrix row that holds each node. -1 for the root and the headers. */
+    private int[] rowId = new int[DEFAULT_CAPACITY];
+
+    /** The number of nodes in each column, indexed by column header. */
+    private int[] columnLength = new int[DEFAULT_CAPACITY];
+
+    /** The number of nodes in use, including the root and the column headers. */
+    private int numberOfNodes = 1;
+
+    /** The number of columns in the matrix. */
+    private int numberOfColumns;
+
+    /** The first node of each row, indexed by row. 0 if the row has no nodes yet. */
+    private int[] rowHeaders = new int[DEFAULT_CAPACITY];
+
+    /**
+     * The row of the solution that covered each column, indexed by column header. Only valid
+     * while the column is covered by a row added with <code>addRowToSolution</code>.
+     */
+    private int[] columnOwner = new int[0];
+
+    /** The first node of each row that has been put into the solution, in order. */
+    private int[] solutionNodes = new int[0];
+
+    /** The number of rows in the solution. */
+    private int solutionSize;
+
+    /** The header of the column chosen at each level of the search. */
+    private int[] levelHeaders = new int[0];
+
+    /** The indexes of the rows of the current solution, reused for every solution. */
+    private int[] solutionRows = new int[0];
+
+    /** The listeners to be notified whenever a solution is found. */
+    private final List<SolutionListener> solutionListeners = new ArrayList<SolutionListener>();
+
+    /** The view of the current solution that is handed to the listeners. */
+    private final SolutionView solutionView = new SolutionView();
+
+    /** Tells whether the solver is finished generating solutions. */
+    private boolean done;
+
+    /** The number of solutions found so far by <code>countSolutions</code>. */
+    private int solutionCount;
+
+    /** The number of solutions after which <code>countSolutions</code> stops searching. */
+    private int solutionLimit;
+
+    /**
+     * The number of solutions found by all of the branches of a parallel count, or
+     * <code>null</code> if this solver is not counting one branch of a parallel count.
+     */
+    private AtomicInteger sharedSolutionCount;
+
+    /**
+     * The solver that receives the solutions found by this solver, if this solver searches one
+     * branch of a parallel search. Otherwise <code>null</code>.
+     */
+    private ArrayDLXSolver parent;
+
+    /** The number of link updates made by <code>coverColumn</code> since this solver was built. */
+    private long updateCount;
+
+    /** The statistics of the most recent search, or <code>null</code> if none are recorded. */
+    private SolverStats stats;
+
+    /** The limits that bound every search, or <code>null</code> if searches are unbounded. */
+    private SearchLimits limits;
+
+    /** How the most recent search ended. */
+    private SearchOutcome outcome = SearchOutcome.COMPLETED;
+
+    /** The solution iterator whose search is in progress, or <code>null</code> if there is none. */
+    private SolutionIterator activeIterator;
+
+    /** The strategy that breaks ties between the shortest columns. */
+    private ColumnStrategy columnStrategy = ColumnStrategy.FIRST;
+
+    /** The order in which the rows of the chosen column are tried. */
+    private RowOrder rowOrder = RowOrder.NATURAL;
+
+    /** The indexes of the shortest columns, handed to a <code>ColumnStrategy</code>. */
+    private int[] tiedColumns = new int[0];
+
+    /**
+     * The rows of the columns chosen at each level of the search, in the order in which they are
+     * tried. Only used if the rows are not tried in their natural order.
+     */
+    private int[] rowBuffer = new int[0];
+
+    /** The position in <code>rowBuffer</code> of the first row of each level. */
+    private int[] levelRowStart = new int[0];
+
+    /** The position in <code>rowBuffer</code> of the next row to be tried at each level. */
+    private int[] levelRowNext = new int[0];
+
+    /** The position in <code>rowBuffer</code> after the last row of each level. */
+    private int[] levelRowEnd = new int[0];
+
+    /** The matrix this solver was copied from. <code>null</code> if it was built node by node. */
+    private final Matrix template;
+
+
+    /** Constructs an <code>ArrayDLXSolver</code> whose matrix holds only the root node. */
+    protected ArrayDLXSolver() {
+        rowId[ROOT] = -1;
+        template = null;
+    }
+
+    /**
+     * Constructs an <code>ArrayDLXSolver</code> whose matrix is a copy of an existing matrix.
+     * Copying the arrays is much cheaper than adding every node again.
+     *
+     * @param template  The matrix to be copied.
+     */
+    protected ArrayDLXSolver(final Matrix template) {
+        this.template = template;
+        left = template.left.clone();
+        right = template.right.clone();
+        up = template.up.clone();
+        down = template.down.clone();
+        column = template.column.clone();
+        rowId = template.rowId.clone();
+        columnLength = template.columnLength.clone();
+        rowHeaders = template.rowHeaders.clone();
+        numberOfNodes = template.numberOfNodes;
+        numberOfColumns = template.numberOfColumns;
+    }
+
+    /**
+     * Constructs an <code>ArrayDLXSolver</code> whose matrix and solution are copies of the
+     * current state of another solver. The arrays that never change during a search are shared.
+     *
+     * @param original  The solver to be copied.
+     */
+    private ArrayDLXSolver(final ArrayDLXSolver original) {
+        template = null;
+        left = original.left.clone();
+        right = original.right.clone();
+        up = original.up.clone();
+        down = original.down.clone();
+        columnLength = original.columnLength.clone();
+        column = original.column;
+        rowId = original.rowId;
+        rowHeaders = original.rowHeaders;
+        numberOfNodes = original.numberOfNodes;
+        numberOfColumns = original.numberOfColumns;
+        solutionNodes = Arrays.copyOf(original.solutionNodes, original.solutionNodes.length);
+        solutionSize = original.solutionSize;
+        columnStrategy = original.columnStrategy;
+        rowOrder = original.rowOrder;
+    }
+
+    /**
+     * Takes an immutable snapshot of the matrix, so that other solvers can be constructed from
+     * it without building the matrix again.
+     *
+     * @return  A snapshot of the matrix.
+     */
+    protected final Matrix createMatrix() {
+        if (solutionSize != 0) {
+            throw new IllegalStateException("Rows must be removed from the solution first.");
+        }
+        return new Matrix(this);
+    }
+
+    /**
+     * Restores the matrix to its original state and empties the solution. A solver that was
+     * copied from a <code>Matrix</code> copies the arrays back in bulk; any other solver removes
+     * the rows of the solution one by one.
+     */
+    public void reset() {
+        closeSolutionIterator();
+        if (template == null) {
+            removeAllRowsFromSolution();
+        } else {
+            int n = template.numberOfNodes;
+            System.arraycopy(template.left, 0, left, 0, n);
+            System.arraycopy(template.right, 0, right, 0, n);
+            System.arraycopy(template.up, 0, up, 0, n);
+            System.arraycopy(template.down, 0, down, 0, n);
+            System.arraycopy(template.columnLength, 0, columnLength, 0, n);
+            solutionSize = 0;
+        }
+        done = false;
+    }
+
+    /**
+     * Makes room for the specified number of nodes and rows, so that the arrays are not grown
+     * over and over again while the matrix is built.
+     *
+     * @param nodes  The number of nodes, including the root and the column headers.
+     * @param rows   The number of rows.
+     */
+    protected void ensureCapacity(final int nodes, final int rows) {
+        if (nodes > left.length) {
+            left = Arrays.copyOf(left, nodes);
+            right = Arrays.copyOf(right, nodes);
+            up = Arrays.copyOf(up, nodes);
+            down = Arrays.copyOf(down, nodes);
+            column = Arrays.copyOf(column, nodes);
+            rowId = Arrays.copyOf(rowId, nodes);
+            columnLength = Arrays.copyOf(columnLength, nodes);
+        }
+        if (rows > rowHeaders.length) {
+            rowHeaders = Arrays.copyOf(rowHeaders, rows);
+        }
+    }
+
+    /**
+     * Creates the column headers for an empty sparse matrix that will be used to solve an exact
+     * cover problem.
+     *
+     * @param count  The number of columns to be created.
+     * @return       The index of the first new column.
+     */
+    protected int createColumns(final int count) {
+        if (numberOfNodes != numberOfColumns + 1) {
+            throw new IllegalStateException("Columns must be created before any node is added.");
+        }
+        ensureCapacity(numberOfNodes + count, rowHeaders.length);
+
+        int firstColumn = numberOfColumns;
+        for (int i = 0; i < count; i++) {
+            int header = numberOfNodes++;
+            left[header] = left[ROOT];
+            right[header] = ROOT;
+            right[left[ROOT]] = header;
+            left[ROOT] = header;
+            up[header] = header;
+            down[header] = header;
+            column[header] = header;
+            rowId[header] = -1;
+            columnLength[header] = 0;
+        }
+        numberOfColumns += count;
+
+        return firstColumn;
+    }
+
+    /**
+     * Gets the number of columns in the matrix.
+     *
+     * @return  The number of columns in the matrix.
+     */
+    public int getNumberOfColumns() {
+        return numberOfColumns;
+    }
+
+    /**
+     * Adds a node to the end of a row and to the end of a column of the matrix.
+     *
+     * @param rowIndex     The index of the row that will hold the new node.
+     * @param columnIndex  The index of the column that will hold the new node.
+     */
+    protected void addNode(final int rowIndex, final int columnIndex) {
+        if (numberOfNodes == left.length) {
+            ensureCapacity(numberOfNodes * 2, rowHeaders.length);
+        }
+        if (rowIndex >= rowHeaders.length) {
+            ensureCapacity(left.length, Math.max(rowIndex + 1, rowHeaders.length * 2));
+        }
+
+        int node = numberOfNodes++;
+        rowId[node] = rowIndex;
+
+        // Connect it to its row.
+        int first = rowHeaders[rowIndex];
+        if (first == 0) {
+            rowHeaders[rowIndex] = node;
+            left[node] = node;
+            right[node] = node;
+        } else {
+            left[node] = left[first];
+            right[node] = first;
+            right[left[first]] = node;
+            left[first] = node;
+        }
+
+        // Connect it to its column.
+        int header = columnIndex + 1;
+        column[node] = header;
+        down[node] = header;
+        up[node] = up[header];
+        down[up[header]] = node;
+        up[header] = node;
+        columnLength[header]++;
+    }
+
+    /**
+     * Tells whether the matrix has a row with the specified index.
+     *
+     * @param rowIndex  The index of a row.
+     * @return          <code>true</code> if at least one node has been added to the row.
+     */
+    protected boolean hasRow(final int rowIndex) {
+        return rowIndex >= 0 && rowIndex < rowHeaders.length && rowHeaders[rowIndex] != 0;
+    }
+
+    /**
+     * Adds the specified row to the solution. Removes all affected columns from further
+     * consideration. A row that shares a column with a row already in the solution is not added,
+     * because covering that column a second time would corrupt the matrix.
+     *
+     * @param rowIndex  The index of the row to be added.
+     * @return          <code>true</code> if the row was added. <code>false</code> if it conflicts
+     *                  with the solution (see <code>findConflictingRow</code>), in which case
+     *                  nothing is changed.
+     */
+    protected boolean addRowToSolution(final int rowIndex) {
+        closeSolutionIterator();
+        if (findConflictingRow(rowIndex) >= 0) {
+            return false;
+        }
+        if (columnOwner.length <= numberOfColumns) {
+            columnOwner = new int[numberOfColumns + 1];
+        }
+
+        int first = rowHeaders[rowIndex];
+        int node = first;
+        do {
+            columnOwner[column[node]] = rowIndex;
+            coverColumn(column[node]);
+            node = right[node];
+        } while (node != first);
+        pushSolutionNode(first);
+        return true;
+    }
+
+    /**
+     * Finds the row of the solution that shares a column with the specified row. A covered column
+     * is no longer linked from its left neighbour, so each column is checked in constant time.
+     *
+     * @param rowIndex  The index of a row.
+     * @return          The index of the row of the solution that covered one of the columns of
+     *                  the specified row, or -1 if every column of the row is still uncovered.
+     */
+    protected int findConflictingRow(final int rowIndex) {
+        int first = rowHeaders[rowIndex];
+        int node = first;
+        do {
+            int header = column[node];
+            if (right[left[header]] != header) {
+                return columnOwner[header];
+            }
+            node = right[node];
+        } while (node != first);
+        return -1;
+    }
+
+    /**
+     * Removes the row that was added to the solution last, and puts its columns back.
+     *
+     * @return  The index of the row that was removed.
+     * @throws IllegalStateException  If the solution is empty.
+     */
+    protected int removeLastRowFromSolution() {
+        closeSolutionIterator();
+        if (solutionSize == 0) {
+            throw new IllegalStateException("The solution is empty.");
+        }
+        int first = solutionNodes[--solutionSize];
+        for (int node = left[first]; node != first; node = left[node]) {
+            uncoverColumn(column[node]);
+        }
+        uncoverColumn(column[first]);
+        return rowId[first];
+    }
+
+    /**
+     * Removes the specified row from the solution, wherever it lies on the solution stack.
+     * Covering is undone in reverse order, so the rows that were added after it are removed
+     * first and then added again. Removing the row that was added last is therefore the cheapest.
+     *
+     * @param rowIndex  The index of the row to be removed.
+     * @return          <code>true</code> if the row was removed. <code>false</code> if it was
+     *                  not part of the solution.
+     */
+    protected boolean removeRowFromSolution(final int rowIndex) {
+        int first = rowHeaders[rowIndex];
+        int position = solutionSize - 1;
+        while (position >= 0 && solutionNodes[position] != first) {
+            position--;
+        }
+        if (position < 0) {
+            return false;
+        }
+
+        int[] later = Arrays.copyOfRange(solutionNodes, position + 1, solutionSize);
+        while (solutionSize > position) {
+            removeLastRowFromSolution();
+        }
+        for (int i = 0; i < later.length; i++) {
+            addRowToSolution(rowId[later[i]]);
+        }
+        return true;
+    }
+
+    /**
+     * Removes every row from the solution of an exact cover problem. (This is usually done when
+     * preparing the matrix to solve another problem.)
+     */
+    protected void removeAllRowsFromSolution() {
+        while (solutionSize > 0) {
+            removeLastRowFromSolution();
+        }
+    }
+
+    /**
+     * Puts a node on top of the solution stack, making room for it if needed.
+     *
+     * @param node  The node to be pushed.
+     */
+    private void pushSolutionNode(final int node) {
+        if (solutionSize == solutionNodes.length) {
+            solutionNodes = Arrays.copyOf(
+                    solutionNodes, Math.max(Math.max(numberOfColumns, 16), solutionSize * 2));
+        }
+        solutionNodes[solutionSize++] = node;
+    }
+
+    /**
+     * Gets the header of the column that contains the fewest nodes. This is the column that will
+     * be covered next.
+     * <p>
+     * No column can beat one of length 0 or 1, so the scan stops at the first such column. In a
+     * sudoku most of the chosen columns have length 1 (a naked or hidden single), so the scan
+     * rarely has to visit every live column.
+     *
+     * @return  The header of the column that has the fewest nodes.
+     */
+    private int getHeaderOfShortestColumn() {
+        int lengthOfShortest = Integer.MAX_VALUE;
+        int headerOfShortest = ROOT;
+
+        for (int header = right[ROOT]; header != ROOT; header = right[header]) {
+            if (columnLength[header] < lengthOfShortest) {
+                lengthOfShortest = columnLength[header];
+                headerOfShortest = header;
+                if (lengthOfShortest <= 1) {
+                    break;
+                }
+            }
+        }
+
+        return headerOfShortest;
+    }
+
+    /**
+     * Gets the header of the column to be covered next: one of the shortest columns, chosen by
+     * the column strategy.
+     *
+     * @return  The header of the column to be covered next.
+     */
+    private int chooseColumn() {
+        if (columnStrategy == ColumnStrategy.FIRST) {
+            return getHeaderOfShortestColumn();
+        }
+
+        int lengthOfShortest = Integer.MAX_VALUE;
+        int count = 0;
+        for (int header = right[ROOT]; header != ROOT; header = right[header]) {
+            int length = columnLength[header];
+            if (length < lengthOfShortest) {
+                if (length == 0) {
+                    return header;
+                }
+                lengthOfShortest = length;
+                count = 0;
+            }
+            if (length == lengthOfShortest) {
+                tiedColumns[count++] = header - 1;
+            }
+        }
+        return tiedColumns[columnStrategy.chooseColumn(tiedColumns, count)] + 1;
+    }
+
+    /**
+     * Puts the rows of a column into <code>rowBuffer</code>, in the order in which they are to be
+     * tried.
+     *
+     * @param level   The level of the search.
+     * @param header  The header of the column.
+     * @param top     The first free position in <code>rowBuffer</code>.
+     * @return        The first free position in <code>rowBuffer</code> after the rows.
+     */
+    private int collectRows(final int level, final int header, final int top) {
+        int end = top + columnLength[header];
+        if (rowBuffer.length < end) {
+            rowBuffer = Arrays.copyOf(rowBuffer, Math.max(end, rowBuffer.length * 2));
+        }
+        int position = top;
+        for (int r = down[header]; r != header; r = down[r]) {
+            rowBuffer[position++] = r;
+        }
+        rowOrder.order(rowBuffer, top, end);
+        levelRowStart[level] = top;
+        levelRowNext[level] = top;
+        levelRowEnd[level] = end;
+        return end;
+    }
+
+    /**
+     * Gets the next row to be tried at a level of the search.
+     *
+     * @param level  The level of the search.
+     * @return       The first node of the next row, or the header of the column if every row has
+     *               been tried.
+     */
+    private int nextRow(final int level) {
+        int position = levelRowNext[level];
+        if (position == levelRowEnd[level]) {
+            return levelHeaders[level];
+        }
+        levelRowNext[level] = position + 1;
+        return rowBuffer[position];
+    }
+
+    /**
+     * Removes a column and one or more rows from the matrix.
+     * <p>
+     * Removes the specified column from the header list and removes all rows in that list from the
+     * other column lists they are in.
+     *
+     * @param header  The header of the column to be removed.
+     */
+    private void coverColumn(final int header) {
+        final int[] l = left;
+        final int[] r = right;
+        final int[] u = up;
+        final int[] d = down;
+
+        l[r[header]] = l[header];
+        r[l[header]] = r[header];
+
+        int updates = 0;
+        for (int i = d[header]; i != header; i = d[i]) {
+            for (int j = r[i]; j != i; j = r[j]) {
+                u[d[j]] = u[j];
+                d[u[j]] = d[j];
+                columnLength[column[j]]--;
+                updates++;
+            }
+        }
+        updateCount += updates;
+    }
+
+    /**
+     * Undoes a <code>coverColumn</code> operation by restoring a column and its associated row(s).
+     *
+     * @param header  The header of the column to be restored.
+     */
+    private void uncoverColumn(final int header) {
+        final int[] l = left;
+        final int[] r = right;
+        final int[] u = up;
+        final int[] d = down;
+
+        for (int i = u[header]; i != header; i = u[i]) {
+            for (int j = l[i]; j != i; j = l[j]) {
+                columnLength[column[j]]++;
+                u[d[j]] = j;
+                d[u[j]] = j;
+            }
+        }
+
+        l[r[header]] = header;
+        r[l[header]] = header;
+    }
+
+    /**
+     * Solves an exact cover problem using Algorithm X (dancing links). If the search gives up
+     * because of its limits, <code>getOutcome</code> tells so; the matrix is restored either way.
+     */
+    public void solve() {
+        done = false;
+        search(false);
+    }
+
+    /**
+     * Counts the solutions of an exact cover problem, without notifying any listener. The search
+     * stops as soon as <code>limit</code> solutions have been found, so asking whether a puzzle
+     * has more than one solution costs no more than finding two of them.
+     *
+     * @param limit  The number of solutions after which counting stops. Use
+     *               <code>Integer.MAX_VALUE</code> to count every solution.
+     * @return       The number of solutions, but no more than <code>limit</code>. If the search
+     *               gave up (see <code>getOutcome</code>), only the solutions found until then.
+     */
+    public int countSolutions(final int limit) {
+        solutionCount = 0;
+        solutionLimit = limit;
+        if (limit > 0) {
+            search(true);
+        }
+        return solutionCount;
+    }
+
+    /**
+     * Gets whether an exact cover problem has exactly one solution.
+     *
+     * @return  <code>true</code> if the problem has one solution. <code>false</code> if it has
+     *          none or more than one.
+     */
+    public boolean isUnique() {
+        return countSolutions(2) == 1;
+    }
+
+    /**
+     * Makes sure the search stacks can hold one row and one column per level of the search. Each
+     * level covers at least one column, so the search can never be deeper than the number of
+     * columns.
+     */
+    private void ensureStackCapacity() {
+        if (solutionNodes.length < solutionSize + numberOfColumns) {
+            solutionNodes = Arrays.copyOf(solutionNodes, solutionSize + numberOfColumns);
+        }
+        if (levelHeaders.length < numberOfColumns) {
+            levelHeaders = new int[numberOfColumns];
+        }
+        if (solutionRows.length < solutionNodes.length) {
+            solutionRows = new int[solutionNodes.length];
+        }
+        if (columnStrategy != ColumnStrategy.FIRST && tiedColumns.length < numberOfColumns) {
+            tiedColumns = new int[numberOfColumns];
+        }
+        if (rowOrder != RowOrder.NATURAL && levelRowStart.length < numberOfColumns) {
+            levelRowStart = new int[numberOfColumns];
+            levelRowNext = new int[numberOfColumns];
+            levelRowEnd = new int[numberOfColumns];
+        }
+    }
+
+    /**
+     * Searches the matrix using Algorithm X, either reporting each solution to the listeners or
+     * just counting the solutions.
+     *
+     * @param counting  <code>true</code> to count the solutions, <code>false</code> to report them.
+     */
+    private void search(final boolean counting) {
+        resumeSearch(beginSearch(), counting ? COUNTING : REPORTING);
+    }
+
+    /**
+     * Prepares a search: makes room on the stacks, clears the outcome and the statistics, and
+     * restarts the strategies.
+     *
+     * @return  The state of the new search, positioned before its first node.
+     */
+    private SearchState beginSearch() {
+        closeSolutionIterator();
+        ensureStackCapacity();
+
+        SearchState state = new SearchState();
+        state.base = solutionSize;
+        state.ordering = rowOrder != RowOrder.NATURAL;
+        state.startUpdates = updateCount;
+        outcome = SearchOutcome.COMPLETED;
+        if (stats != null) {
+            stats.reset();
+            state.startTime = System.nanoTime();
+        }
+        if (parent == null && sharedSolutionCount == null) {
+            columnStrategy.startSearch();
+            rowOrder.startSearch();
+        }
+        return state;
+    }
+
+    /**
+     * Runs a search from where it stopped, using Algorithm X.
+     * <p>
+     * The search is iterative. The column chosen at each level is kept in
+     * <code>levelHeaders</code>, and the row tried at each level is kept on top of the givens in
+     * <code>solutionNodes</code>. Those two arrays and a <code>SearchState</code> are all the
+     * state there is, so deep searches on large grids cannot overflow the stack, and a search can
+     * be suspended at a solution and resumed later.
+     *
+     * @param state  The state of the search.
+     * @param mode   <code>COUNTING</code>, <code>REPORTING</code> or <code>YIELDING</code>.
+     * @return       <code>true</code> if the search stopped at a solution (only when yielding),
+     *               which then lies on the solution stack. <code>false</code> if it is finished.
+     */
+    private boolean resumeSearch(final SearchState state, final int mode) {
+
+        /*
+         * Pseudocode (copied from Knuth), with the recursion on k turned into a loop:
+         *   If R[h] = h, print the current solution and return.
+         *   Otherwise choose a column object c.
+         *   For each r <- D[c], D[D[c]], ..., while r != c,
+         *       set O[k] -> r;
+         *       for each j <- R[r], R[R[r], ..., while j != r,
+         *           cover column j;
+         *       search(k + 1);
+         *       set r <- O[k] and c <- C[r];
+         *       for each j <- L[r], L[L[r]], ..., while j != r,
+         *           uncover column j.
+         *   Uncover column c and return.
+         */
+
+        final int[] stack = solutionNodes;
+        final int[] headers = levelHeaders;
+        final int base = state.base;
+        final boolean ordering = state.ordering;
+        final SolverStats stats = this.stats;
+        final SearchLimits limits = this.limits;
+        solutionSize = base;
+
+        int level = state.level;
+        int rowTop = state.rowTop;
+        long visited = state.visited;
+        boolean descending = state.descending;
+        boolean stopping = state.stopping;
+
+        while (true) {
+            int r;
+            if (descending) {
+                if (stats != null) {
+                    stats.nodes++;
+                    if (level > stats.maxDepth) {
+                        stats.maxDepth = level;
+                    }
+                }
+                if (limits != null) {
+                    SearchOutcome exceeded = limits.check(++visited);
+                    if (exceeded != null) {
+
+                        // Give up, unwinding the stacks so that the matrix is restored.
+                        outcome = exceeded;
+                        stopping = true;
+                        descending = false;
+                        continue;
+                    }
+                }
+                if (right[ROOT] == ROOT) {
+                    if (stats != null) {
+                        stats.solutions++;
+                    }
+                    descending = false;
+                    if (mode == COUNTING) {
+                        solutionCount++;
+                        if (sharedSolutionCount == null) {
+                            stopping = solutionCount >= solutionLimit;
+                        } else {
+                            stopping = sharedSolutionCount.incrementAndGet() >= solutionLimit;
+                        }
+                    } else if (mode == REPORTING) {
+                        solutionSize = base + level;
+                        reportSolution();
+                        solutionSize = base;
+                        stopping = done;
+                    } else {
+
+                        // Suspend the search at this solution. It goes on from here next time.
+                        solutionSize = base + level;
+                        state.level = level;
+                        state.rowTop = rowTop;
+                        state.visited = visited;
+                        state.descending = false;
+                        state.stopping = false;
+                        return true;
+                    }
+                    continue;
+                }
+                int header = chooseColumn();
+                if (stats != null) {
+                    stats.recordBranching(columnLength[header]);
+                }
+                coverColumn(header);
+                headers[level] = header;
+                if (ordering) {
+                    rowTop = collectRows(level, header, rowTop);
+                    r = nextRow(level);
+                } else {
+                    r = down[header];
+                }
+            } else {
+                if (level == 0) {
+                    break;
+                }
+                level--;
+                r = stack[base + level];
+                for (int j = left[r]; j != r; j = left[j]) {
+                    uncoverColumn(column[j]);
+                }
+                if (stopping) {
+                    r = headers[level];
+                } else {
+                    r = ordering ? nextRow(level) : down[r];
+                }
+            }
+
+            if (r == headers[level]) {
+
+                // Every row of this column has been tried. Go back up one level.
+                uncoverColumn(r);
+                if (ordering) {
+                    rowTop = levelRowStart[level];
+                }
+                descending = false;
+            } else {
+                stack[base + level] = r;
+                for (int j = right[r]; j != r; j = right[j]) {
+                    coverColumn(column[j]);
+                }
+                level++;
+                descending = true;
+            }
+        }
+
+        if (stats != null) {
+            stats.updates = updateCount - state.startUpdates;
+            stats.elapsedNanos = System.nanoTime() - state.startTime;
+        }
+        return false;
+    }
+
+    /**
+     * Creates an iterator over the solutions of an exact cover problem. The search runs only as
+     * far as the next solution each time the iterator is asked for one, and waits in between, so
+     * a caller can take the first few solutions, or stream a great many of them, without keeping
+     * them all in memory and without a listener.
+     * <p>
+     * While the iterator is in use the matrix is in the middle of a search. Any other search or
+     * change of the solution closes the iterator first, as does <code>closeSolutionIterator</code>.
+     * The limits and statistics of this solver apply to the search of the iterator.
+     *
+     * @return  An iterator over the solutions. Each element is a new array made by
+     *          <code>decodeSolution</code>.
+     */
+    public SolutionIterator solutionIterator() {
+        SearchState state = beginSearch();
+        activeIterator = new SolutionIterator(state);
+        return activeIterator;
+    }
+
+    /**
+     * Closes the solution iterator that is in use, if any: its search is stopped and the matrix
+     * is restored. The iterator has no more elements afterwards.
+     */
+    public void closeSolutionIterator() {
+        SolutionIterator iterator = activeIterator;
+        if (iterator != null) {
+            activeIterator = null;
+            iterator.finish();
+        }
+    }
+
+    /**
+     * Turns a solution into an element of a <code>SolutionIterator</code>. The default is a copy
+     * of the indexes of the solution's rows; subclasses may decode the rows into something more
+     * useful.
+     *
+     * @param rows   The indexes of the rows that make up the solution.
+     * @param count  The number of rows in the solution.
+     * @return       A new array that describes the solution.
+     */
+    protected int[] decodeSolution(final int[] rows, final int count) {
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * Counts every solution of an exact cover problem without enumerating them, by remembering
+     * the number of solutions of the sub-problems that have already been solved (like Knuth's
+     * DXZ). The rows that are left at a node of the search are exactly the rows whose columns are
+     * all still live, so the set of live columns identifies the sub-problem. When the same set
+     * turns up again (e.g. after the same values have been placed in a different order), its
+     * count is taken from the cache instead of being searched again. Only nodes that branch are
+     * remembered: a node whose shortest column has one row has the same count as its only child.
+     * <p>
+     * The cache holds up to <code>cacheSize</code> sub-problems; the least recently used one is
+     * dropped when it is full. It only lives for this call. Listeners are not notified.
+     *
+     * @param cacheSize  The greatest number of sub-problems to remember.
+     * @return           The number of solutions, or <code>Long.MAX_VALUE</code> if there are at
+     *                   least that many. If the search gave up (see <code>getOutcome</code>), only
+     *                   the solutions counted until then.
+     */
+    public long countSolutionsMemoized(final int cacheSize) {
+        closeSolutionIterator();
+        Map<ColumnSet, Long> cache = new LinkedHashMap<ColumnSet, Long>(
+                Math.min(cacheSize, 1024), 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            protected boolean removeEldestEntry(final Map.Entry<ColumnSet, Long> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        ensureStackCapacity();
+        final int[] stack = solutionNodes;
+        final int[] headers = levelHeaders;
+        final int base = solutionSize;
+        final ColumnSet[] keys = new ColumnSet[numberOfColumns];
+        final long[] counts = new long[numberOfColumns];
+
+        // Bit h is set while the column with header h is live. Kept up to date by this loop.
+        final long[] live = new long[(numberOfColumns >>> 6) + 1];
+        for (int header = right[ROOT]; header != ROOT; header = right[header]) {
+            live[header >>> 6] |= 1L << header;
+        }
+
+        final SolverStats stats = this.stats;
+        final SearchLimits limits = this.limits;
+        long visited = 0;
+        outcome = SearchOutcome.COMPLETED;
+        final long startUpdates = updateCount;
+        long startTime = 0;
+        if (stats != null) {
+            stats.reset();
+            startTime = System.nanoTime();
+        }
+
+        /*
+         * The same loop as in search(). When the search leaves a level, result holds the number
+         * of solutions of the sub-problem it has just finished. That number is added to the count
+         * of the level above, and remembered for the sub-problem.
+         */
+        int level = 0;
+        long result = 0;
+        boolean descending = true;
+        boolean stopping = false;
+
+        while (true) {
+            int r;
+            if (descending) {
+                if (stats != null) {
+                    stats.nodes++;
+                    if (level > stats.maxDepth) {
+                        stats.maxDepth = level;
+                    }
+                }
+                if (limits != null) {
+                    SearchOutcome exceeded = limits.check(++visited);
+                    if (exceeded != null) {
+                        outcome = exceeded;
+                        stopping = true;
+                        result = 0;
+                        descending = false;
+                        continue;
+                    }
+                }
+                if (right[ROOT] == ROOT) {
+                    result = 1;
+                    descending = false;
+                    continue;
+                }
+                int header = getHeaderOfShortestColumn();
+                ColumnSet key = null;
+                if (columnLength[header] > 1) {
+                    key = new ColumnSet(live);
+                    Long cached = (Long) cache.get(key);
+                    if (cached != null) {
+                        result = cached.longValue();
+                        descending = false;
+                        continue;
+                    }
+                }
+                keys[level] = key;
+                counts[level] = 0;
+
+                if (stats != null) {
+                    stats.recordBranching(columnLength[header]);
+                }
+                coverColumn(header);
+                live[header >>> 6] &= ~(1L << header);
+                headers[level] = header;
+                r = down[header];
+            } else {
+                if (level == 0) {
+                    break;
+                }
+                level--;
+                counts[level] = addSaturated(counts[level], result);
+                r = stack[base + level];
+                for (int j = left[r]; j != r; j = left[j]) {
+                    uncoverColumn(column[j]);
+                    live[column[j] >>> 6] |= 1L << column[j];
+                }
+                r = stopping ? headers[level] : down[r];
+            }
+
+            if (r == headers[level]) {
+
+                // The sub-problem of this level is solved. Remember its count.
+                uncoverColumn(r);
+                live[r >>> 6] |= 1L << r;
+                result = counts[level];
+                if (!stopping && keys[level] != null) {
+                    cache.put(keys[level], Long.valueOf(result));
+                }
+                keys[level] = null;
+                descending = false;
+            } else {
+                stack[base + level] = r;
+                for (int j = right[r]; j != r; j = right[j]) {
+                    coverColumn(column[j]);
+                    live[column[j] >>> 6] &= ~(1L << column[j]);
+                }
+                level++;
+                descending = true;
+            }
+        }
+
+        if (stats != null) {
+            stats.solutions = result;
+            stats.updates = updateCount - startUpdates;
+            stats.elapsedNanos = System.nanoTime() - startTime;
+        }
+        return result;
+    }
+
+    /**
+     * Adds two counts of solutions, saturating at <code>Long.MAX_VALUE</code> instead of
+     * overflowing.
+     *
+     * @param a  A count of solutions.
+     * @param b  Another count of solutions.
+     * @return   The sum of the counts, but no more than <code>Long.MAX_VALUE</code>.
+     */
+    private static long addSaturated(final long a, final long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     * Counts the solutions of an exact cover problem like <code>countSolutions</code>, but
+     * spreads the work over the threads of an executor. Every choice of row in the first
+     * <code>splitDepth</code> levels of the search becomes a task that searches its own copy of
+     * the matrix. The tasks stop as soon as <code>limit</code> solutions have been found between
+     * them.
+     *
+     * @param limit       The number of solutions after which counting stops.
+     * @param splitDepth  The number of levels of the search that are split into tasks (usually
+     *                    1 or 2).
+     * @param executor    The executor that runs the tasks.
+     * @return            The number of solutions, but no more than <code>limit</code>.
+     * @throws InterruptedException  If the calling thread is interrupted while it waits for the
+     *                               tasks.
+     */
+    public int countSolutionsInParallel(
+            final int limit,
+            final int splitDepth,
+            final ExecutorService executor) throws InterruptedException {
+        long startTime = System.nanoTime();
+        final AtomicInteger sharedCount = new AtomicInteger();
+        List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        List<ArrayDLXSolver> branches = split(splitDepth);
+        for (int i = 0; i < branches.size(); i++) {
+            final ArrayDLXSolver branch = (ArrayDLXSolver) branches.get(i);
+            branch.sharedSolutionCount = sharedCount;
+            branch.limits = limits;
+            if (stats != null) {
+                branch.stats = new SolverStats(stats.getHistogramSize());
+            }
+            tasks.add(new Callable<Integer>() {
+                public Integer call() {
+                    return Integer.valueOf(branch.countSolutions(limit));
+                }
+            });
+        }
+
+        int total = 0;
+        List<Future<Integer>> results = executor.invokeAll(tasks);
+        for (int i = 0; i < results.size(); i++) {
+            total += getResult(results.get(i)).intValue();
+        }
+        mergeOutcomes(branches);
+        mergeStats(branches, splitDepth, startTime);
+        return Math.min(total, limit);
+    }
+
+    /**
+     * Solves an exact cover problem like <code>solve</code>, but spreads the work over the
+     * threads of an executor, in the same way as <code>countSolutionsInParallel</code>. The
+     * registered listeners (and <code>solutionFound</code>) are notified from the threads of the
+     * executor, one solution at a time. Once a listener tells the solver to stop, every task stops at its next solution.
+     *
+     * @param splitDepth  The number of levels of the search that are split into tasks (usually
+     *                    1 or 2).
+     * @param executor    The executor that runs the tasks.
+     * @throws InterruptedException  If the calling thread is interrupted while it waits for the
+     *                               tasks.
+     */
+    public void solveInParallel(
+            final int splitDepth,
+            final ExecutorService executor) throws InterruptedException {
+        long startTime = System.nanoTime();
+        done = false;
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        List<ArrayDLXSolver> branches = split(splitDepth);
+        for (int i = 0; i < branches.size(); i++) {
+            final ArrayDLXSolver branch = (ArrayDLXSolver) branches.get(i);
+            branch.parent = this;
+            branch.limits = limits;
+            if (stats != null) {
+                branch.stats = new SolverStats(stats.getHistogramSize());
+            }
+            tasks.add(new Callable<Object>() {
+                public Object call() {
+                    branch.solve();
+                    return null;
+                }
+            });
+        }
+
+        List<Future<Object>> results = executor.invokeAll(tasks);
+        for (int i = 0; i < results.size(); i++) {
+            getResult(results.get(i));
+        }
+        mergeOutcomes(branches);
+        mergeStats(branches, splitDepth, startTime);
+    }
+
+    /**
+     * Sets the outcome of this solver from the outcomes of the branches of a parallel search. The
+     * search gave up if any branch gave up.
+     *
+     * @param branches  The branches of the search.
+     */
+    private void mergeOutcomes(final List<ArrayDLXSolver> branches) {
+        outcome = SearchOutcome.COMPLETED;
+        for (int i = 0; i < branches.size(); i++) {
+            SearchOutcome branchOutcome = ((ArrayDLXSolver) branches.get(i)).outcome;
+            if (branchOutcome.hasGivenUp()) {
+                outcome = branchOutcome;
+            }
+        }
+    }
+
+    /**
+     * Combines the statistics of the branches of a parallel search into the statistics of this
+     * solver.
+     *
+     * @param branches    The branches of the search.
+     * @param splitDepth  The number of levels of the search that were split into branches.
+     * @param startTime   The value of <code>System.nanoTime()</code> when the search started.
+     */
+    private void mergeStats(
+            final List<ArrayDLXSolver> branches,
+            final int splitDepth,
+            final long startTime) {
+        if (stats == null) {
+            return;
+        }
+        stats.reset();
+        for (int i = 0; i < branches.size(); i++) {
+            stats.add(((ArrayDLXSolver) branches.get(i)).stats, splitDepth);
+        }
+        stats.elapsedNanos = System.nanoTime() - startTime;
+    }
+
+    /**
+     * Gets the result of a finished task, rethrowing whatever the task threw.
+     *
+     * @param future  The <code>Future</code> of a finished task.
+     * @param <T>     The type of the result.
+     * @return        The result of the task.
+     * @throws InterruptedException  If the calling thread is interrupted.
+     */
+    private static <T> T getResult(final Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Splits the search into independent branches. Each branch is a copy of this solver in which
+     * the rows chosen in the first levels of the search have been added to the solution.
+     *
+     * @param depth  The number of levels of the search to be split.
+     * @return       The branches of the search.
+     */
+    private List<ArrayDLXSolver> split(final int depth) {
+        closeSolutionIterator();
+        List<ArrayDLXSolver> branches = new ArrayList<ArrayDLXSolver>();
+        ensureStackCapacity();
+        split(depth, branches);
+        return branches;
+    }
+
+    /**
+     * Splits the search into independent branches, one level at a time.
+     *
+     * @param depth     The number of levels still to be split.
+     * @param branches  The collection to which the branches are added.
+     */
+    private void split(final int depth, final List<ArrayDLXSolver> branches) {
+        if (depth <= 0 || right[ROOT] == ROOT) {
+            branches.add(new ArrayDLXSolver(this) { });
+            return;
+        }
+
+        int header = getHeaderOfShortestColumn();
+        coverColumn(header);
+        for (int r = down[header]; r != header; r = down[r]) {
+            solutionNodes[solutionSize++] = r;
+            for (int j = right[r]; j != r; j = right[j]) {
+                coverColumn(column[j]);
+            }
+            split(depth - 1, branches);
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncoverColumn(column[j]);
+            }
+            solutionSize--;
+        }
+        uncoverColumn(header);
+    }
+
+    /**
+     * Sets the strategy that breaks ties between the shortest columns in every later search.
+     *
+     * @param strategy  The strategy, or <code>null</code> for <code>ColumnStrategy.FIRST</code>.
+     */
+    public void setColumnStrategy(final ColumnStrategy strategy) {
+        columnStrategy = strategy == null ? ColumnStrategy.FIRST : strategy;
+    }
+
+    /**
+     * Sets the order in which every later search tries the rows of the column it has chosen.
+     *
+     * @param order  The order, or <code>null</code> for <code>RowOrder.NATURAL</code>.
+     */
+    public void setRowOrder(final RowOrder order) {
+        rowOrder = order == null ? RowOrder.NATURAL : order;
+    }
+
+    /**
+     * Bounds every later search of this solver. The branches of a parallel search share the
+     * limits, so cancelling them stops every branch; the node budget applies to each branch.
+     *
+     * @param limits  The limits, or <code>null</code> to search without bounds.
+     */
+    public void setLimits(final SearchLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Gets the limits that bound the searches of this solver.
+     *
+     * @return  The limits, or <code>null</code> if searches are unbounded.
+     */
+    public SearchLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Gets how the most recent search ended. A search that gave up has restored the matrix, so
+     * the solver can be used again, but the solutions it found (or counted) are incomplete.
+     *
+     * @return  How the most recent search ended.
+     */
+    public SearchOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Attaches statistics to this solver. Every later search records its work in them.
+     *
+     * @param stats  The statistics to be filled in, or <code>null</code> to stop recording.
+     */
+    public void setStats(final SolverStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Gets the statistics attached to this solver.
+     *
+     * @return  The statistics attached to this solver, or <code>null</code> if there are none.
+     */
+    public SolverStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Adds a listener to the collection of registered listeners. Each listener will be notified
+     * whenever a solution to an exact cover problem is found.
+     *
+     * @param listener  The listener to be added.
+     */
+    public void addSolutionListener(final SolutionListener listener) {
+        solutionListeners.add(listener);
+    }
+
+    /**
+     * Notifies each registered listener that a solution has been found. Based on the return value
+     * from each notification, sets an instance variable that tells the solver whether to continue
+     * generating solutions.
+     */
+    private void reportSolution() {
+        final int[] rows = solutionRows;
+        for (int i = 0; i < solutionSize; i++) {
+            rows[i] = rowId[solutionNodes[i]];
+        }
+
+        if (parent != null) {
+            done |= parent.notifyListeners(solutionView, rows, solutionSize);
+            return;
+        }
+        for (int i = 0; i < solutionListeners.size(); i++) {
+            done |= solutionListeners.get(i).solutionFound(solutionView);
+        }
+        done |= solutionFound(rows, solutionSize);
+    }
+
+    /**
+     * Notifies each registered listener of a solution found by one of the branches of a parallel
+     * search.
+     *
+     * @param nodes  The nodes that make up the solution.
+     * @param rows   The indexes of the rows that make up the solution.
+     * @param count  The number of rows in the solution.
+     * @return       <code>true</code> if the search is finished.
+     */
+    private synchronized boolean notifyListeners(
+            final List<Node> nodes,
+            final int[] rows,
+            final int count) {
+        for (int i = 0; i < solutionListeners.size() && !done; i++) {
+            done |= solutionListeners.get(i).solutionFound(nodes);
+        }
+        if (!done) {
+            done |= solutionFound(rows, count);
+        }
+        return done;
+    }
+
+    /**
+     * Called whenever a solution is found, after the registered listeners. Subclasses can
+     * override this to deliver solutions in a form that suits their problem. The array belongs to
+     * the solver and is reused for every solution, so no garbage is created.
+     *
+     * @param rows   The indexes of the rows that make up the solution (givens first).
+     * @param count  The number of rows in the solution.
+     * @return       <code>true</code> if solving has been completed. <code>false</code> if the
+     *               solver should continue generating solutions.
+     */
+    protected boolean solutionFound(final int[] rows, final int count) {
+        return false;
+    }
+
+
+    /**
+     * A read-only view of the current solution, for listeners that expect the <code>Node</code>s
+     * of the object based solver. The <code>Node</code>s are created once and reused, so only
+     * their <code>applicationData</code> (the index of the row) is meaningful, and only for the
+     * duration of the notification.
+     */
+    private final class SolutionView extends AbstractList<Node> {
+
+        /** The reusable <code>Node</code>s handed out by this view. */
+        private Node[] nodes = new Node[0];
+
+        /** {@inheritDoc} */
+        public Node get(final int index) {
+            if (index >= solutionSize) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            if (index >= nodes.length) {
+                int oldLength = nodes.length;
+                nodes = Arrays.copyOf(nodes, Math.max(solutionNodes.length, index + 1));
+                for (int i = oldLength; i < nodes.length; i++) {
+                    nodes[i] = new Node();
+                }
+            }
+            Node node = nodes[index];
+            node.applicationData = rowId[solutionNodes[index]];
+            return node;
+        }
+
+        /** {@inheritDoc} */
+        public int size() {
+            return solutionSize;
+        }
+    }
+
+
+    /** Where a search stands, so that it can be suspended and resumed. */
+    private static final class SearchState {
+
+        /** The number of rows that were in the solution before the search started. */
+        private int base;
+
+        /** Tells whether the rows are tried in some other than their natural order. */
+        private boolean ordering;
+
+        /** The current level of the search. */
+        private int level;
+
+        /** The first free position in <code>rowBuffer</code>. */
+        private int rowTop;
+
+        /** The number of nodes visited, as counted for the <code>SearchLimits</code>. */
+        private long visited;
+
+        /** Tells whether the search goes down to a new node (or back up). */
+        private boolean descending = true;
+
+        /** Tells whether the search is unwinding without trying any more rows. */
+        private boolean stopping;
+
+        /** The value of <code>updateCount</code> when the search started. */
+        private long startUpdates;
+
+        /** The value of <code>System.nanoTime()</code> when the search started. */
+        private long startTime;
+    }
+
+    /**
+     * An iterator over the solutions of an exact cover problem, which runs the search only as
+     * far as the next solution. See <code>solutionIterator</code>.
+     */
+    public final class SolutionIterator implements Iterator<int[]> {
+
+        /** The state of the suspended search. */
+        private final SearchState state;
+
+        /** Tells whether the search has been run to the next solution (or to its end). */
+        private boolean advanced;
+
+        /** Tells whether the search stopped at a solution that has not been returned yet. */
+        private boolean pending;
+
+        /** Tells whether the search is finished and the matrix restored. */
+        private boolean finished;
+
+        /**
+         * Constructs a <code>SolutionIterator</code>.
+         *
+         * @param state  The state of a search that has not started yet.
+         */
+        private SolutionIterator(final SearchState state) {
+            this.state = state;
+        }
+
+        /** {@inheritDoc} */
+        public boolean hasNext() {
+            if (!advanced && !finished) {
+                pending = resumeSearch(state, YIELDING);
+                advanced = true;
+                if (!pending) {
+                    finished = true;
+                    if (activeIterator == this) {
+                        activeIterator = null;
+                    }
+                }
+            }
+            return pending;
+        }
+
+        /** {@inheritDoc} */
+        public int[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            advanced = false;
+            pending = false;
+            final int[] rows = solutionRows;
+            for (int i = 0; i < solutionSize; i++) {
+                rows[i] = rowId[solutionNodes[i]];
+            }
+            return decodeSolution(rows, solutionSize);
+        }
+
+        /**
+         * Not supported.
+         *
+         * @throws UnsupportedOperationException  Always.
+         */
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /** Stops the search and restores the matrix. */
+        private void finish() {
+            if (!finished) {
+                finished = true;
+                pending = false;
+                state.stopping = true;
+                state.descending = false;
+                resumeSearch(state, YIELDING);
+            }
+        }
+    }
+
+    /** The set of live columns of a matrix, used as the key of a memoized sub-problem. */
+    private static final class ColumnSet {
+
+        /** Bit h is set if the column with header h is live. */
+        private final long[] bits;
+
+        /** The hash code of the set, computed once. */
+        private final int hash;
+
+        /**
+         * Constructs a <code>ColumnSet</code> from a copy of a bit set of live columns.
+         *
+         * @param live  Bit h is set if the column with header h is live.
+         */
+        ColumnSet(final long[] live) {
+            bits = live.clone();
+            hash = Arrays.hashCode(bits);
+        }
+
+        /** {@inheritDoc} */
+        public boolean equals(final Object other) {
+            return other instanceof ColumnSet && Arrays.equals(bits, ((ColumnSet) other).bits);
+        }
+
+        /** {@inheritDoc} */
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * An immutable snapshot of a dancing links matrix. Solvers for the same kind of problem can
+     * share one snapshot and copy it instead of building their own matrix.
+     */
+    public static final class Matrix {
+
+        /** The left neighbor of each node. */
+        private final int[] left;
+
+        /** The right neighbor of each node. */
+        private final int[] right;
+
+        /** The upper neighbor of each node. */
+        private final int[] up;
+
+        /** The lower neighbor of each node. */
+        private final int[] down;
+
+        /** The column header of each node. */
+        private final int[] column;
+
+        /** The index of the matrix row that holds each node. */
+        private final int[] rowId;
+
+        /** The number of nodes in each column, indexed by column header. */
+        private final int[] columnLength;
+
+        /** The first node of each row, indexed by row. */
+        private final int[] rowHeaders;
+
+        /** The number of nodes, including the root and the column headers. */
+        private final int numberOfNodes;
+
+        /** The number of columns. */
+        private final int numberOfColumns;
+
+        /**
+         * Constructs a <code>Matrix</code>.
+         *
+         * @param solver  The solver whose matrix is copied.
+         */
+        private Matrix(final ArrayDLXSolver solver) {
+            numberOfNodes = solver.numberOfNodes;
+            numberOfColumns = solver.numberOfColumns;
+            left = Arrays.copyOf(solver.left, numberOfNodes);
+            right = Arrays.copyOf(solver.right, numberOfNodes);
+            up = Arrays.copyOf(solver.up, numberOfNodes);
+            down = Arrays.copyOf(solver.down, numberOfNodes);
+            column = Arrays.copyOf(solver.column, numberOfNodes);
+            rowId = Arrays.copyOf(solver.rowId, numberOfNodes);
+            columnLength = Arrays.copyOf(solver.columnLength, numberOfNodes);
+            rowHeaders = solver.rowHeaders.clone();
+        }
+    }
+}
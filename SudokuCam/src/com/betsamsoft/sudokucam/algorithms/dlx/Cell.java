@@ -168,6 +168,25 @@ public class Cell {
         }
     }
 
+    /**
+     * Sets the <code>state</code>, <code>value</code> and candidates of this <code>Cell</code>
+     * without telling the listeners. Used when a whole puzzle is loaded at once; the houses must
+     * be brought up to date afterwards (see <code>House.resetUnsolvedCells</code>).
+     *
+     * @param newState       The new state of this <code>Cell</code>.
+     * @param newValue       The new value of this <code>Cell</code>.
+     * @param candidateMask  The new candidates of this <code>Cell</code>: bit v is set if value v
+     *                       is a candidate.
+     */
+    void load(final CellState newState, final int newValue, final long candidateMask) {
+        state = newState;
+        value = newValue;
+        candidates.clear();
+        for (long mask = candidateMask; mask != 0; mask &= mask - 1) {
+            candidates.set(Long.numberOfTrailingZeros(mask));
+        }
+    }
+
     /**
      * Gets the current <code>state</code> of this <code>Cell</code>.
      *
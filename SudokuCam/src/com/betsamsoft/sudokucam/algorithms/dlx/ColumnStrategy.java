@@ -0,0 +1,82 @@
+package com.betsamsoft.sudokucam.algorithms.dlx;
+
+import java.util.Random;
+
+
+
+/**
+ * A <code>ColumnStrategy</code> decides which column a dancing links search covers next when
+ * several live columns share the fewest rows. The search always picks one of the shortest columns
+ * (Knuth's "S heuristic"); the strategy only breaks the ties.
+ */
+public abstract class ColumnStrategy {
+
+    /**
+     * Chooses the first of the shortest columns, in the order the columns were created. This is
+     * the default, and the fastest: the search stops looking as soon as it finds a column of
+     * length 0 or 1.
+     */
+    public static final ColumnStrategy FIRST = new ColumnStrategy() {
+        protected int chooseColumn(final int[] columns, final int count) {
+            return 0;
+        }
+    };
+
+    /**
+     * Creates a strategy that chooses one of the shortest columns at random. Every search starts
+     * over from the seed, so a search can be repeated.
+     *
+     * @param seed  The seed of the random number generator.
+     * @return      The strategy.
+     */
+    public static ColumnStrategy random(final long seed) {
+        return new ColumnStrategy() {
+            private final Random random = new Random(seed);
+
+            protected void startSearch() {
+                random.setSeed(seed);
+            }
+
+            protected int chooseColumn(final int[] columns, final int count) {
+                return random.nextInt(count);
+            }
+        };
+    }
+
+    /**
+     * Creates a strategy that chooses the shortest column with the greatest weight. Ties between
+     * equal weights go to the first column.
+     *
+     * @param weights  The weight of each column, indexed like the columns of the matrix.
+     * @return         The strategy.
+     */
+    public static ColumnStrategy weighted(final int[] weights) {
+        return new ColumnStrategy() {
+            protected int chooseColumn(final int[] columns, final int count) {
+                int best = 0;
+                for (int i = 1; i < count; i++) {
+                    if (weights[columns[i]] > weights[columns[best]]) {
+                        best = i;
+                    }
+                }
+                return best;
+            }
+        };
+    }
+
+    /**
+     * Called when a search starts. Strategies that keep some state (e.g. a random number
+     * generator) reset it here. The branches of a parallel search do not call it.
+     */
+    protected void startSearch() {
+    }
+
+    /**
+     * Chooses one of the shortest live columns.
+     *
+     * @param columns  The indexes of the shortest live columns, in the order they were created.
+     * @param count    The number of columns in <code>columns</code>. Always at least 1.
+     * @return         The position of the chosen column in <code>columns</code>.
+     */
+    protected abstract int chooseColumn(int[] columns, int count);
+}
@@ -0,0 +1,860 @@
+package com.betsamsoft.sudokucam.algorithms.dlx;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+
+
+/**
+ * A <code>CompactPuzzleModel</code> holds the same data as an <code>AbstractPuzzleModel</code>,
+ * but in a few primitive arrays indexed by cell (<code>row * gridSize + column</code>) instead of
+ * one <code>Cell</code> per square and one <code>House</code> per row, column, block and
+ * diagonal. The candidates of a cell are a bit mask (bit v is set if value v is a candidate).
+ * <p>
+ * The houses are the same, and in the same order, as in an <code>AbstractPuzzleModel</code> with
+ * the same options. Their tables are a <code>GridGeometry</code> shared by every model of the
+ * same layout, so a 9x9 model holds three arrays of 81 entries and nothing else.
+ * <p>
+ * Code that still works with <code>Cell</code>s and <code>House</code>s can use the views
+ * returned by <code>getCellAt</code>, <code>getAllCells</code>, <code>getAllHouses</code>, etc.
+ * A view holds no data of its own: it reads and writes this model, and is created on demand.
+ * Views of the same cell (or house) are equal. Views do not take listeners, because the model
+ * itself removes the candidates from the buddies of a cell when a value is placed.
+ */
+public class CompactPuzzleModel {
+
+    /** The largest grid size that fits into the candidate masks. */
+    public static final int MAX_GRID_SIZE = 31;
+
+    /** The cell states, indexed by the codes kept in <code>states</code>. */
+    private static final CellState[] STATES = {
+        CellState.UNSOLVED, CellState.GIVEN, CellState.SOLVED, CellState.UNASSIGNED,
+    };
+
+    /** The code of <code>CellState.UNSOLVED</code>. */
+    private static final byte UNSOLVED = 0;
+
+    /** The code of <code>CellState.GIVEN</code>. */
+    private static final byte GIVEN = 1;
+
+    /** The houses of this model, the houses of each cell and the peers of each cell. */
+    private final GridGeometry geometry;
+
+    /** The size of the grid. */
+    private final int gridSize;
+
+    /** The candidate mask of a cell that has every candidate. */
+    private final int allCandidates;
+
+    /** The value of each cell, 0 if the cell does not contain a value. */
+    private final byte[] values;
+
+    /** The state of each cell, as an index into <code>STATES</code>. */
+    private final byte[] states;
+
+    /** The candidates of each cell. Bit v is set if value v is a candidate. */
+    private final int[] candidates;
+
+    /**
+     * Constructs an empty <code>CompactPuzzleModel</code> with rectangular blocks.
+     *
+     * @param gridSize        The number of cells in each row and each column.
+     * @param blockHeight     The number of rows of each block.
+     * @param blockWidth      The number of columns of each block.
+     * @param usingDiagonals  Whether the sudoku has diagonal houses.
+     */
+    public CompactPuzzleModel(
+            final int gridSize,
+            final int blockHeight,
+            final int blockWidth,
+            final boolean usingDiagonals) {
+        this(GridGeometry.getInstance(gridSize, blockHeight, blockWidth, usingDiagonals));
+    }
+
+    /**
+     * Constructs an empty <code>CompactPuzzleModel</code> with blocks of any shape (e.g. a
+     * jigsaw sudoku).
+     *
+     * @param gridSize        The number of cells in each row and each column.
+     * @param blockIndexes    The index of the block of each cell, row by row.
+     * @param usingDiagonals  Whether the sudoku has diagonal houses.
+     */
+    public CompactPuzzleModel(
+            final int gridSize,
+            final int[] blockIndexes,
+            final boolean usingDiagonals) {
+        this(GridGeometry.getInstance(gridSize, blockIndexes, usingDiagonals));
+    }
+
+    /**
+     * Constructs a <code>CompactPuzzleModel</code> with the layout, the values, the states and
+     * the candidates of an <code>AbstractPuzzleModel</code>. Every cell must be in a block.
+     *
+     * @param puzzle  A sudoku.
+     */
+    public CompactPuzzleModel(final AbstractPuzzleModel puzzle) {
+        this(createGeometry(puzzle));
+
+        Iterator<Cell> iterator = puzzle.getAllCells();
+        while (iterator.hasNext()) {
+            Cell cell = (Cell) iterator.next();
+            int cellIndex = cell.getRow() * gridSize + cell.getColumn();
+            values[cellIndex] = (byte) cell.getValue();
+            states[cellIndex] = stateCode(cell.getState());
+            BitSet cellCandidates = cell.getCandidates();
+            int mask = 0;
+            for (int value = cellCandidates.nextSetBit(1);
+                    value > 0 && value <= gridSize;
+                    value = cellCandidates.nextSetBit(value + 1)) {
+                mask |= 1 << value;
+            }
+            candidates[cellIndex] = mask;
+        }
+    }
+
+    /**
+     * Constructs an empty <code>CompactPuzzleModel</code>: every cell is unsolved and has every
+     * candidate.
+     *
+     * @param geometry  The houses of the model.
+     */
+    private CompactPuzzleModel(final GridGeometry geometry) {
+        this.geometry = geometry;
+        gridSize = geometry.getGridSize();
+        if (gridSize > MAX_GRID_SIZE) {
+            throw new IllegalArgumentException("Invalid grid size: " + gridSize);
+        }
+        allCandidates = (1 << (gridSize + 1)) - 2;
+        int numberOfCells = gridSize * gridSize;
+        values = new byte[numberOfCells];
+        states = new byte[numberOfCells];
+        candidates = new int[numberOfCells];
+        Arrays.fill(candidates, allCandidates);
+    }
+
+    /**
+     * Gets the geometry of an <code>AbstractPuzzleModel</code>.
+     *
+     * @param puzzle  A sudoku.
+     * @return        The geometry of the sudoku.
+     */
+    private static GridGeometry createGeometry(final AbstractPuzzleModel puzzle) {
+        int size = puzzle.getGridSize();
+        int[] blockIndexes = new int[size * size];
+        Iterator<Cell> iterator = puzzle.getAllCells();
+        while (iterator.hasNext()) {
+            Cell cell = (Cell) iterator.next();
+            blockIndexes[cell.getRow() * size + cell.getColumn()] = cell.getBlockIndex();
+        }
+        return GridGeometry.getInstance(size, blockIndexes, puzzle.getBothDiagonals().hasNext());
+    }
+
+    /**
+     * Gets the code of a cell state.
+     *
+     * @param state  A cell state.
+     * @return       The index of the state in <code>STATES</code>.
+     */
+    private static byte stateCode(final CellState state) {
+        byte code = 0;
+        while (STATES[code] != state) {
+            code++;
+        }
+        return code;
+    }
+
+    /**
+     * Gets the size of the puzzle grid.
+     *
+     * @return  The size of the puzzle grid (i. e., the number of cells horizontally and
+     *          vertically).
+     */
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * Replaces the contents of this model with a puzzle: the non-zero values become givens, the
+     * other cells become unsolved, and the candidates of each unsolved cell are the values that
+     * none of its buddies contains. Givens that conflict are placed anyway.
+     *
+     * @param puzzle  The value of each cell, row by row (0 for an empty cell).
+     */
+    public void loadPuzzle(final int[] puzzle) {
+        if (puzzle.length != values.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + values.length + " cells, got " + puzzle.length);
+        }
+
+        for (int cellIndex = 0; cellIndex < values.length; cellIndex++) {
+            if (puzzle[cellIndex] < 0 || puzzle[cellIndex] > gridSize) {
+                throw new IllegalArgumentException(
+                        "Invalid value " + puzzle[cellIndex] + " in cell " + cellIndex);
+            }
+        }
+
+        // The values used in each house (bit 0 stands for the empty cells).
+        int[][] houses = geometry.getHouses();
+        int[] used = new int[houses.length];
+        for (int h = 0; h < houses.length; h++) {
+            for (int i = 0; i < gridSize; i++) {
+                used[h] |= 1 << puzzle[houses[h][i]];
+            }
+        }
+
+        int[][] cellHouses = geometry.getCellHouses();
+        for (int cellIndex = 0; cellIndex < values.length; cellIndex++) {
+            int value = puzzle[cellIndex];
+            values[cellIndex] = (byte) value;
+            if (value > 0) {
+                states[cellIndex] = GIVEN;
+                candidates[cellIndex] = 0;
+            } else {
+                states[cellIndex] = UNSOLVED;
+                int mask = allCandidates;
+                for (int i = 0; i < cellHouses[cellIndex].length; i++) {
+                    mask &= ~used[cellHouses[cellIndex][i]];
+                }
+                candidates[cellIndex] = mask;
+            }
+        }
+    }
+
+    /**
+     * Gets the original puzzle: the values of the given cells.
+     *
+     * @return  A new array containing the value of each given cell, row by row, and 0 for each
+     *          other cell.
+     */
+    public int[] getOriginalPuzzle() {
+        int[] puzzle = new int[values.length];
+        for (int cellIndex = 0; cellIndex < values.length; cellIndex++) {
+            if (states[cellIndex] == GIVEN) {
+                puzzle[cellIndex] = values[cellIndex];
+            }
+        }
+        return puzzle;
+    }
+
+    /**
+     * Gets the current grid.
+     *
+     * @return  A new array containing the value of each cell, row by row (0 if the cell does not
+     *          contain a value).
+     */
+    public int[] getGrid() {
+        int[] grid = new int[values.length];
+        for (int cellIndex = 0; cellIndex < values.length; cellIndex++) {
+            grid[cellIndex] = values[cellIndex];
+        }
+        return grid;
+    }
+
+    /**
+     * Gets the current value of a cell.
+     *
+     * @param cellIndex  The index of a cell.
+     * @return           The value of the cell, 0 if the cell does not contain a value.
+     */
+    public int getValue(final int cellIndex) {
+        return values[cellIndex];
+    }
+
+    /**
+     * Gets the current state of a cell.
+     *
+     * @param cellIndex  The index of a cell.
+     * @return           The state of the cell.
+     */
+    public CellState getState(final int cellIndex) {
+        return STATES[states[cellIndex]];
+    }
+
+    /**
+     * Gets whether a cell contains a value.
+     *
+     * @param cellIndex  The index of a cell.
+     * @return           <code>true</code> if the cell's state is <code>GIVEN</code> or
+     *                   <code>SOLVED</code>. Otherwise, <code>false</code>.
+     */
+    public boolean containsValue(final int cellIndex) {
+        CellState state = STATES[states[cellIndex]];
+        return state == CellState.GIVEN || state == CellState.SOLVED;
+    }
+
+    /**
+     * Sets the state and the value of a cell. If the cell then contains a value, its candidates
+     * are cleared and the value is removed as a candidate from each of its buddies.
+     *
+     * @param cellIndex  The index of a cell.
+     * @param newState   The new state of the cell.
+     * @param newValue   The new value of the cell.
+     */
+    public void setStateAndValue(final int cellIndex, final CellState newState, final int newValue) {
+        setStateAndValue(cellIndex, newState, newValue, null);
+    }
+
+    /**
+     * Sets the state and the value of a cell, recording the buddies that lose a candidate.
+     *
+     * @param cellIndex  The index of a cell.
+     * @param newState   The new state of the cell.
+     * @param newValue   The new value of the cell.
+     * @param step       The <code>Step</code> in which this state and value are being set.
+     *                   <code>null</code> if there is no <code>Step</code>.
+     */
+    void setStateAndValue(
+            final int cellIndex,
+            final CellState newState,
+            final int newValue,
+            final ValuePlacementStep step) {
+        if (newValue < 0 || newValue > gridSize) {
+            throw new IllegalArgumentException("Invalid value " + newValue);
+        }
+        states[cellIndex] = stateCode(newState);
+        values[cellIndex] = (byte) newValue;
+        if (!containsValue(cellIndex)) {
+            return;
+        }
+        candidates[cellIndex] = 0;
+
+        int bit = 1 << newValue;
+        int[] peers = geometry.getPeers()[cellIndex];
+        for (int i = 0; i < peers.length; i++) {
+            int buddy = peers[i];
+            if ((candidates[buddy] & bit) != 0) {
+                candidates[buddy] &= ~bit;
+                if (step != null) {
+                    step.addAffectedCell(new CellView(buddy));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the candidates of a cell.
+     *
+     * @param cellIndex  The index of a cell.
+     * @return           The candidates of the cell. Bit v is set if value v is a candidate.
+     */
+    public int getCandidateMask(final int cellIndex) {
+        return candidates[cellIndex];
+    }
+
+    /**
+     * Gets whether a specified value is a candidate of a cell.
+     *
+     * @param cellIndex       The index of a cell.
+     * @param candidateValue  A value.
+     * @return                <code>true</code> if the value is a candidate of the cell.
+     *                        Otherwise, <code>false</code>.
+     */
+    public boolean hasCandidate(final int cellIndex, final int candidateValue) {
+        return candidateValue > 0 && candidateValue <= gridSize
+                && (candidates[cellIndex] & (1 << candidateValue)) != 0;
+    }
+
+    /**
+     * Adds a value as a candidate of a cell.
+     *
+     * @param cellIndex       The index of a cell.
+     * @param candidateValue  The candidate value to be added.
+     */
+    public void addCandidate(final int cellIndex, final int candidateValue) {
+        candidates[cellIndex] |= (1 << candidateValue) & allCandidates;
+    }
+
+    /**
+     * Removes a value as a candidate of a cell.
+     *
+     * @param cellIndex       The index of a cell.
+     * @param candidateValue  The candidate value to be removed.
+     */
+    public void removeCandidate(final int cellIndex, final int candidateValue) {
+        candidates[cellIndex] &= ~((1 << candidateValue) & allCandidates);
+    }
+
+    /**
+     * Gets the index of the block that contains a cell.
+     *
+     * @param cellIndex  The index of a cell.
+     * @return           The index of the block that contains the cell.
+     */
+    public int getBlockIndex(final int cellIndex) {
+        int[] cellHouses = geometry.getCellHouses()[cellIndex];
+        for (int i = 0; i < cellHouses.length; i++) {
+            if (cellHouses[i] < gridSize * 3 && cellHouses[i] % 3 == 2) {
+                return cellHouses[i] / 3;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the index tables (houses of each cell, peers of each cell, etc.) of this model.
+     *
+     * @return  The geometry of this model.
+     */
+    public GridGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Gets whether this puzzle has been solved.
+     *
+     * @return  <code>true</code> if no <code>Cell</code> is unsolved. Otherwise,
+     *          <code>false</code>.
+     */
+    public boolean isSolved() {
+        for (int cellIndex = 0; cellIndex < states.length; cellIndex++) {
+            if (states[cellIndex] == UNSOLVED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets a view of the <code>Cell</code> at the specified location.
+     *
+     * @param row     The Y coordinate of a <code>Cell</code>.
+     * @param column  The X coordinate of a <code>Cell</code>.
+     * @return        A view of the <code>Cell</code> at the specified location.
+     */
+    public Cell getCellAt(final int row, final int column) {
+        return new CellView(row * gridSize + column);
+    }
+
+    /**
+     * Gets an <code>Iterator</code> over views of all <code>Cell</code>s.
+     *
+     * @return  An <code>Iterator</code> over views of all <code>Cell</code>s, row by row.
+     */
+    public Iterator<Cell> getAllCells() {
+        return new Iterator<Cell>() {
+            private int next;
+
+            public boolean hasNext() {
+                return next < values.length;
+            }
+
+            public Cell next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return new CellView(next++);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Gets an <code>Iterator</code> over views of all <code>House</code>s.
+     *
+     * @return  An <code>Iterator</code> over views of all <code>House</code>s.
+     */
+    public Iterator<House> getAllHouses() {
+        return new HouseIterator(0, 1, geometry.getNumberOfHouses());
+    }
+
+    /**
+     * Gets an <code>Iterator</code> over views of all rows.
+     *
+     * @return  An <code>Iterator</code> over views of all rows.
+     */
+    public Iterator<House> getAllRows() {
+        return new HouseIterator(0, 3, gridSize);
+    }
+
+    /**
+     * Gets an <code>Iterator</code> over views of all columns.
+     *
+     * @return  An <code>Iterator</code> over views of all columns.
+     */
+    public Iterator<House> getAllColumns() {
+        return new HouseIterator(1, 3, gridSize);
+    }
+
+    /**
+     * Gets an <code>Iterator</code> over views of all blocks.
+     *
+     * @return  An <code>Iterator</code> over views of all blocks.
+     */
+    public Iterator<House> getAllBlocks() {
+        return new HouseIterator(2, 3, gridSize);
+    }
+
+    /**
+     * Gets a view of the block with the specified index.
+     *
+     * @param blockIndex  The index of a block.
+     * @return            A view of the block with the specified index.
+     */
+    public House getBlock(final int blockIndex) {
+        if (blockIndex < 0 || blockIndex >= gridSize) {
+            throw new IndexOutOfBoundsException("Block " + blockIndex);
+        }
+        return new HouseView(blockIndex * 3 + 2);
+    }
+
+    /**
+     * Gets an <code>Iterator</code> over views of both diagonals.
+     *
+     * @return  An <code>Iterator</code> over views of both diagonals (none if this sudoku has no
+     *          diagonal houses).
+     */
+    public Iterator<House> getBothDiagonals() {
+        return new HouseIterator(gridSize * 3, 1, geometry.getNumberOfHouses() - gridSize * 3);
+    }
+
+    /**
+     * Gets the buddies of a specified <code>Cell</code>.
+     *
+     * @param cell  A view of a <code>Cell</code> of this model.
+     * @return      A collection containing views of all of the <code>Cell</code>'s buddies (i.e.,
+     *              each <code>Cell</code> that shares a <code>House</code> with the specified
+     *              <code>Cell</code>).
+     */
+    public Set<Cell> getBuddies(final Cell cell) {
+        return getBuddies(cell, false);
+    }
+
+    /**
+     * Gets the unsolved buddies of a specified <code>Cell</code>.
+     *
+     * @param cell  A view of a <code>Cell</code> of this model.
+     * @return      A collection containing views of all of the cell's unsolved buddies (i.e.,
+     *              each unsolved <code>Cell</code> that shares a house with the specified
+     *              <code>Cell</code>).
+     */
+    public Set<Cell> getUnsolvedBuddies(final Cell cell) {
+        return getBuddies(cell, true);
+    }
+
+    /**
+     * Gets the buddies of a <code>Cell</code>. As in <code>AbstractPuzzleModel</code>, a solved
+     * <code>Cell</code> has no buddies.
+     *
+     * @param cell          A view of a <code>Cell</code> of this model.
+     * @param unsolvedOnly  <code>true</code> to leave out the buddies that contain a value.
+     * @return              A collection containing views of the buddies.
+     */
+    private Set<Cell> getBuddies(final Cell cell, final boolean unsolvedOnly) {
+        int cellIndex = cell.getRow() * gridSize + cell.getColumn();
+        Set<Cell> buddies = new HashSet<Cell>(geometry.getNumberOfPeers(cellIndex) * 2);
+        if (containsValue(cellIndex)) {
+            return buddies;
+        }
+
+        int[] peers = geometry.getPeers()[cellIndex];
+        for (int i = 0; i < peers.length; i++) {
+            if (!(unsolvedOnly && containsValue(peers[i]))) {
+                buddies.add(new CellView(peers[i]));
+            }
+        }
+        return buddies;
+    }
+
+    /**
+     * Gets the name of a house, as <code>AbstractPuzzleModel</code> names its houses.
+     *
+     * @param houseIndex  The index of a house.
+     * @return            The name of the house.
+     */
+    private String getHouseName(final int houseIndex) {
+        if (houseIndex >= gridSize * 3) {
+            return House.createName(houseIndex == gridSize * 3 ? "diagonal.\\" : "diagonal./", 0);
+        }
+        String[] keys = {
+            "row.name", "column.name", "block.name",
+        };
+        return House.createName(keys[houseIndex % 3], houseIndex / 3 + 1);
+    }
+
+
+    /** An <code>Iterator</code> over views of some of the houses. */
+    private final class HouseIterator implements Iterator<House> {
+
+        /** The index of the next house. */
+        private int next;
+
+        /** The difference between the indexes of two houses. */
+        private final int stride;
+
+        /** The number of houses left. */
+        private int remaining;
+
+        /**
+         * Constructs a <code>HouseIterator</code>.
+         *
+         * @param first   The index of the first house.
+         * @param stride  The difference between the indexes of two houses.
+         * @param count   The number of houses.
+         */
+        HouseIterator(final int first, final int stride, final int count) {
+            next = first;
+            this.stride = stride;
+            remaining = count;
+        }
+
+        /** {@inheritDoc} */
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        /** {@inheritDoc} */
+        public House next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            House house = new HouseView(next);
+            next += stride;
+            remaining--;
+            return house;
+        }
+
+        /** {@inheritDoc} */
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+
+    /** A <code>Cell</code> that reads and writes a cell of this model. */
+    private final class CellView extends Cell {
+
+        /** The index of the cell. */
+        private final int cellIndex;
+
+        /**
+         * Constructs a <code>CellView</code>.
+         *
+         * @param cellIndex  The index of the cell.
+         */
+        CellView(final int cellIndex) {
+            super(0, cellIndex % gridSize, cellIndex / gridSize);
+            this.cellIndex = cellIndex;
+        }
+
+        /** {@inheritDoc} */
+        public void addListener(final ValueListener listener) {
+            throw new UnsupportedOperationException("A cell view does not take listeners");
+        }
+
+        /** {@inheritDoc} */
+        public void removeListener(final ValueListener listener) {
+            throw new UnsupportedOperationException("A cell view does not take listeners");
+        }
+
+        /** {@inheritDoc} */
+        public void setStateAndValue(
+                final CellState newState,
+                final int newValue,
+                final ValuePlacementStep step) {
+            CompactPuzzleModel.this.setStateAndValue(cellIndex, newState, newValue, step);
+        }
+
+        /** {@inheritDoc} */
+        public CellState getState() {
+            return CompactPuzzleModel.this.getState(cellIndex);
+        }
+
+        /** {@inheritDoc} */
+        public int getValue() {
+            return CompactPuzzleModel.this.getValue(cellIndex);
+        }
+
+        /** {@inheritDoc} */
+        public boolean hasCandidate(final int candidateValue) {
+            return CompactPuzzleModel.this.hasCandidate(cellIndex, candidateValue);
+        }
+
+        /** {@inheritDoc} */
+        public void addCandidate(final int candidateValue) {
+            CompactPuzzleModel.this.addCandidate(cellIndex, candidateValue);
+        }
+
+        /** {@inheritDoc} */
+        public void removeCandidate(final int candidateValue) {
+            CompactPuzzleModel.this.removeCandidate(cellIndex, candidateValue);
+        }
+
+        /** {@inheritDoc} */
+        public BitSet getCandidates() {
+            BitSet bitSet = new BitSet(gridSize + 1);
+            int mask = candidates[cellIndex];
+            while (mask != 0) {
+                bitSet.set(Integer.numberOfTrailingZeros(mask));
+                mask &= mask - 1;
+            }
+            return bitSet;
+        }
+
+        /** {@inheritDoc} */
+        public boolean containsValue() {
+            return CompactPuzzleModel.this.containsValue(cellIndex);
+        }
+
+        /** {@inheritDoc} */
+        public int getBlockIndex() {
+            return CompactPuzzleModel.this.getBlockIndex(cellIndex);
+        }
+
+        /** {@inheritDoc} */
+        public void setBlockIndex(final int blockIndex) {
+            throw new UnsupportedOperationException("The blocks of a compact model are fixed");
+        }
+
+        /** {@inheritDoc} */
+        public boolean equals(final Object other) {
+            if (!(other instanceof CellView)) {
+                return false;
+            }
+            CellView view = (CellView) other;
+            return view.cellIndex == cellIndex && view.getModel() == CompactPuzzleModel.this;
+        }
+
+        /** {@inheritDoc} */
+        public int hashCode() {
+            return System.identityHashCode(CompactPuzzleModel.this) * 31 + cellIndex;
+        }
+
+        /**
+         * Gets the model of this view.
+         *
+         * @return  The model of this view.
+         */
+        private CompactPuzzleModel getModel() {
+            return CompactPuzzleModel.this;
+        }
+    }
+
+
+    /** A <code>House</code> that reads a house of this model. */
+    private final class HouseView extends House {
+
+        /** The index of the house. */
+        private final int houseIndex;
+
+        /**
+         * Constructs a <code>HouseView</code>.
+         *
+         * @param houseIndex  The index of the house.
+         */
+        HouseView(final int houseIndex) {
+            super(null);
+            this.houseIndex = houseIndex;
+        }
+
+        /** {@inheritDoc} */
+        public void addCell(final Cell cell) {
+            throw new UnsupportedOperationException("The houses of a compact model are fixed");
+        }
+
+        /** {@inheritDoc} */
+        public Iterator<Cell> getAllCells() {
+            return getCells(false).iterator();
+        }
+
+        /** {@inheritDoc} */
+        public int getNumberOfUnsolvedCells() {
+            int count = 0;
+            int[] house = geometry.getHouses()[houseIndex];
+            for (int i = 0; i < house.length; i++) {
+                if (!containsValue(house[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /** {@inheritDoc} */
+        public Iterator<Cell> getUnsolvedCells() {
+            return getCells(true).iterator();
+        }
+
+        /** {@inheritDoc} */
+        public Set<Cell> getCellsWithCandidate(final int candidateValue) {
+            Set<Cell> cells = new HashSet<Cell>();
+            int[] house = geometry.getHouses()[houseIndex];
+            for (int i = 0; i < house.length; i++) {
+                if (!containsValue(house[i]) && hasCandidate(house[i], candidateValue)) {
+                    cells.add(new CellView(house[i]));
+                }
+            }
+            return cells;
+        }
+
+        /** {@inheritDoc} */
+        public boolean containsUnsolved(final Cell cell) {
+            int cellIndex = cell.getRow() * gridSize + cell.getColumn();
+            if (!new CellView(cellIndex).equals(cell) || containsValue(cellIndex)) {
+                return false;
+            }
+            int[] cellHouses = geometry.getCellHouses()[cellIndex];
+            for (int i = 0; i < cellHouses.length; i++) {
+                if (cellHouses[i] == houseIndex) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** {@inheritDoc} */
+        public String getName() {
+            return getHouseName(houseIndex);
+        }
+
+        /** {@inheritDoc} */
+        public void valueChanged(final Cell cell, final ValuePlacementStep step) {
+            throw new UnsupportedOperationException("A house view does not listen to cells");
+        }
+
+        /** {@inheritDoc} */
+        public boolean equals(final Object other) {
+            if (!(other instanceof HouseView)) {
+                return false;
+            }
+            HouseView view = (HouseView) other;
+            return view.houseIndex == houseIndex && view.getModel() == CompactPuzzleModel.this;
+        }
+
+        /** {@inheritDoc} */
+        public int hashCode() {
+            return System.identityHashCode(CompactPuzzleModel.this) * 31 + houseIndex;
+        }
+
+        /**
+         * Gets views of the cells of this house.
+         *
+         * @param unsolvedOnly  <code>true</code> to leave out the cells that contain a value.
+         * @return              A collection containing views of the cells.
+         */
+        private Set<Cell> getCells(final boolean unsolvedOnly) {
+            Set<Cell> cells = new HashSet<Cell>();
+            int[] house = geometry.getHouses()[houseIndex];
+            for (int i = 0; i < house.length; i++) {
+                if (!(unsolvedOnly && containsValue(house[i]))) {
+                    cells.add(new CellView(house[i]));
+                }
+            }
+            return cells;
+        }
+
+        /**
+         * Gets the model of this view.
+         *
+         * @return  The model of this view.
+         */
+        private CompactPuzzleModel getModel() {
+            return CompactPuzzleModel.this;
+        }
+    }
+}
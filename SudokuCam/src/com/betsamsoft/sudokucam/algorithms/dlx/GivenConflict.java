@@ -0,0 +1,90 @@
+package com.betsamsoft.sudokucam.algorithms.dlx;
+
+
+
+/**
+ * A <code>GivenConflict</code> describes a given that could not be placed because it breaks the
+ * rules together with a given that was placed before it (e.g. the same digit twice in a house,
+ * as happens when a digit is misread).
+ */
+public final class GivenConflict {
+
+    /** The index of the cell of the given that was not placed. */
+    private final int cellIndex;
+
+    /** The value of the given that was not placed. */
+    private final int value;
+
+    /** The index of the cell of the given that was already placed. */
+    private final int conflictingCellIndex;
+
+    /** The value of the given that was already placed. */
+    private final int conflictingValue;
+
+    /**
+     * Constructs a <code>GivenConflict</code>.
+     *
+     * @param cellIndex             The index of the cell of the given that was not placed.
+     * @param value                 The value of the given that was not placed.
+     * @param conflictingCellIndex  The index of the cell of the given that was already placed.
+     * @param conflictingValue      The value of the given that was already placed.
+     */
+    GivenConflict(
+            final int cellIndex,
+            final int value,
+            final int conflictingCellIndex,
+            final int conflictingValue) {
+        this.cellIndex = cellIndex;
+        this.value = value;
+        this.conflictingCellIndex = conflictingCellIndex;
+        this.conflictingValue = conflictingValue;
+    }
+
+    /**
+     * Gets the index (<code>row * gridSize + column</code>) of the cell of the given that was not
+     * placed.
+     *
+     * @return  The index of the cell.
+     */
+    public int getCellIndex() {
+        return cellIndex;
+    }
+
+    /**
+     * Gets the value of the given that was not placed.
+     *
+     * @return  The value of the given.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the index (<code>row * gridSize + column</code>) of the cell of the given that was
+     * already placed.
+     *
+     * @return  The index of the cell.
+     */
+    public int getConflictingCellIndex() {
+        return conflictingCellIndex;
+    }
+
+    /**
+     * Gets the value of the given that was already placed.
+     *
+     * @return  The value of the given.
+     */
+    public int getConflictingValue() {
+        return conflictingValue;
+    }
+
+    /**
+     * Creates a <code>String</code> representation of the conflict.
+     *
+     * @return  A <code>String</code> representation of the conflict.
+     */
+    public String toString() {
+        return "cell " + cellIndex + " = " + value
+                + " conflicts with cell " + conflictingCellIndex + " = " + conflictingValue;
+    }
+}
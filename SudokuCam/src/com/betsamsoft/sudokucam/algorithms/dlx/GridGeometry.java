@@ -0,0 +1,333 @@
+package com.betsamsoft.sudokucam.algorithms.dlx;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+
+/**
+ * A <code>GridGeometry</code> holds the index tables of one grid layout (size, blocks and
+ * diagonals): the cells of each house, the houses of each cell and the peers of each cell. Cells
+ * are numbered row by row (<code>row * gridSize + column</code>), houses in the order in which
+ * <code>AbstractPuzzleModel</code> creates them: row i, column i and block i for each i, then
+ * the diagonals.
+ * <p>
+ * The tables are built once per layout and shared by every model, solver and technique that uses
+ * the layout, so none of them may be changed. The lookups by index do not allocate anything.
+ */
+public final class GridGeometry {
+
+    /** The number of geometries that are kept for reuse. */
+    private static final int NUMBER_OF_GEOMETRIES = 32;
+
+    /**
+     * The geometries that have already been built, keyed by their houses. The least recently used
+     * geometry is dropped when the cache is full; whoever still holds it keeps using it.
+     */
+    private static final Map<GridGeometry, GridGeometry> GEOMETRIES =
+            new LinkedHashMap<GridGeometry, GridGeometry>(NUMBER_OF_GEOMETRIES, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                protected boolean removeEldestEntry(
+                        final Map.Entry<GridGeometry, GridGeometry> eldest) {
+                    return size() > NUMBER_OF_GEOMETRIES;
+                }
+            };
+
+    /** The size of the grid. */
+    private final int gridSize;
+
+    /** The (sorted) indexes of the cells in each house. */
+    private final int[][] houses;
+
+    /** The hash code of the houses. */
+    private final int hashCode;
+
+    /** The indexes of the houses of each cell, in ascending order, or <code>null</code>. */
+    private int[][] cellHouses;
+
+    /** The indexes of the peers of each cell, in ascending order, or <code>null</code>. */
+    private int[][] peers;
+
+    /**
+     * Constructs a <code>GridGeometry</code>. The other tables are built by
+     * <code>createTables</code>, and only if the geometry is not in the cache yet.
+     *
+     * @param gridSize  The number of cells in each row and each column.
+     * @param houses    The (sorted) indexes of the cells in each house.
+     */
+    private GridGeometry(final int gridSize, final int[][] houses) {
+        this.gridSize = gridSize;
+        this.houses = houses;
+        hashCode = gridSize * 31 + Arrays.deepHashCode(houses);
+    }
+
+    /**
+     * Gets the geometry of a sudoku with rectangular blocks.
+     *
+     * @param gridSize        The number of cells in each row and each column.
+     * @param blockHeight     The number of rows of each block.
+     * @param blockWidth      The number of columns of each block.
+     * @param usingDiagonals  Whether the sudoku has diagonal houses.
+     * @return                The geometry of the layout.
+     */
+    public static GridGeometry getInstance(
+            final int gridSize,
+            final int blockHeight,
+            final int blockWidth,
+            final boolean usingDiagonals) {
+        if (blockHeight < 1 || blockWidth < 1 || blockHeight * blockWidth != gridSize) {
+            throw new IllegalArgumentException("Invalid block size: "
+                    + blockHeight + "x" + blockWidth + " for grid size " + gridSize);
+        }
+        int[] blockIndexes = new int[gridSize * gridSize];
+        for (int row = 0; row < gridSize; row++) {
+            for (int column = 0; column < gridSize; column++) {
+                blockIndexes[row * gridSize + column] =
+                        row / blockHeight * blockHeight + column / blockWidth;
+            }
+        }
+        return getInstance(gridSize, blockIndexes, usingDiagonals);
+    }
+
+    /**
+     * Gets the geometry of a sudoku with blocks of any shape (e.g. a jigsaw sudoku).
+     *
+     * @param gridSize        The number of cells in each row and each column.
+     * @param blockIndexes    The index of the block of each cell, row by row.
+     * @param usingDiagonals  Whether the sudoku has diagonal houses.
+     * @return                The geometry of the layout.
+     */
+    public static GridGeometry getInstance(
+            final int gridSize,
+            final int[] blockIndexes,
+            final boolean usingDiagonals) {
+        int numberOfCells = gridSize * gridSize;
+        if (gridSize < 1 || blockIndexes.length != numberOfCells) {
+            throw new IllegalArgumentException("Invalid grid size " + gridSize
+                    + " for " + blockIndexes.length + " block indexes");
+        }
+
+        int[][] houses = new int[gridSize * 3 + (usingDiagonals ? 2 : 0)][gridSize];
+        int[] count = new int[houses.length];
+        for (int row = 0; row < gridSize; row++) {
+            for (int column = 0; column < gridSize; column++) {
+                int cellIndex = row * gridSize + column;
+                int block = blockIndexes[cellIndex];
+                if (block < 0 || block >= gridSize || count[block * 3 + 2] == gridSize) {
+                    throw new IllegalArgumentException(
+                            "Invalid block index " + block + " of cell " + cellIndex);
+                }
+                houses[row * 3][count[row * 3]++] = cellIndex;
+                houses[column * 3 + 1][count[column * 3 + 1]++] = cellIndex;
+                houses[block * 3 + 2][count[block * 3 + 2]++] = cellIndex;
+                if (usingDiagonals && row == column) {
+                    houses[gridSize * 3][count[gridSize * 3]++] = cellIndex;
+                }
+                if (usingDiagonals && row + column + 1 == gridSize) {
+                    houses[gridSize * 3 + 1][count[gridSize * 3 + 1]++] = cellIndex;
+                }
+            }
+        }
+        return getInstance(gridSize, houses);
+    }
+
+    /**
+     * Gets the geometry of a grid with the specified houses.
+     *
+     * @param gridSize  The number of cells in each row and each column.
+     * @param houses    The (sorted) indexes of the cells in each house. The array is kept by the
+     *                  geometry and must not be changed afterwards.
+     * @return          The geometry of the layout.
+     */
+    static GridGeometry getInstance(final int gridSize, final int[][] houses) {
+        GridGeometry key = new GridGeometry(gridSize, houses);
+        synchronized (GEOMETRIES) {
+            GridGeometry geometry = (GridGeometry) GEOMETRIES.get(key);
+            if (geometry == null) {
+                geometry = key;
+                geometry.createTables();
+                GEOMETRIES.put(geometry, geometry);
+            }
+            return geometry;
+        }
+    }
+
+    /** Creates the houses of each cell and the peers of each cell. */
+    private void createTables() {
+        int numberOfCells = gridSize * gridSize;
+        int[] count = new int[numberOfCells];
+        for (int h = 0; h < houses.length; h++) {
+            for (int i = 0; i < houses[h].length; i++) {
+                count[houses[h][i]]++;
+            }
+        }
+        cellHouses = new int[numberOfCells][];
+        for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++) {
+            cellHouses[cellIndex] = new int[count[cellIndex]];
+            count[cellIndex] = 0;
+        }
+        for (int h = 0; h < houses.length; h++) {
+            for (int i = 0; i < houses[h].length; i++) {
+                int cellIndex = houses[h][i];
+                cellHouses[cellIndex][count[cellIndex]++] = h;
+            }
+        }
+
+        // The peers of a cell are the other cells of its houses, each one once.
+        peers = new int[numberOfCells][];
+        boolean[] isPeer = new boolean[numberOfCells];
+        for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++) {
+            int numberOfPeers = 0;
+            for (int i = 0; i < cellHouses[cellIndex].length; i++) {
+                int[] house = houses[cellHouses[cellIndex][i]];
+                for (int j = 0; j < house.length; j++) {
+                    if (house[j] != cellIndex && !isPeer[house[j]]) {
+                        isPeer[house[j]] = true;
+                        numberOfPeers++;
+                    }
+                }
+            }
+            peers[cellIndex] = new int[numberOfPeers];
+            int j = 0;
+            for (int other = 0; other < numberOfCells; other++) {
+                if (isPeer[other]) {
+                    peers[cellIndex][j++] = other;
+                    isPeer[other] = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the size of the grid.
+     *
+     * @return  The number of cells in each row and each column.
+     */
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * Gets the number of houses (rows, columns, blocks and diagonals).
+     *
+     * @return  The number of houses.
+     */
+    public int getNumberOfHouses() {
+        return houses.length;
+    }
+
+    /**
+     * Gets a cell of a house.
+     *
+     * @param houseIndex  The index of a house.
+     * @param i           The position of the cell in the house, from 0 to
+     *                    <code>gridSize - 1</code>.
+     * @return            The index of the cell.
+     */
+    public int getCellOfHouse(final int houseIndex, final int i) {
+        return houses[houseIndex][i];
+    }
+
+    /**
+     * Gets the number of houses of a cell.
+     *
+     * @param cellIndex  The index of a cell.
+     * @return           The number of houses that contain the cell.
+     */
+    public int getNumberOfHousesOfCell(final int cellIndex) {
+        return cellHouses[cellIndex].length;
+    }
+
+    /**
+     * Gets a house of a cell.
+     *
+     * @param cellIndex  The index of a cell.
+     * @param i          The position of the house among the houses of the cell.
+     * @return           The index of the house.
+     */
+    public int getHouseOfCell(final int cellIndex, final int i) {
+        return cellHouses[cellIndex][i];
+    }
+
+    /**
+     * Gets the number of peers (buddies) of a cell.
+     *
+     * @param cellIndex  The index of a cell.
+     * @return           The number of other cells that share a house with the cell.
+     */
+    public int getNumberOfPeers(final int cellIndex) {
+        return peers[cellIndex].length;
+    }
+
+    /**
+     * Gets a peer (buddy) of a cell.
+     *
+     * @param cellIndex  The index of a cell.
+     * @param i          The position of the peer among the peers of the cell, which are in
+     *                   ascending order.
+     * @return           The index of the peer.
+     */
+    public int getPeer(final int cellIndex, final int i) {
+        return peers[cellIndex][i];
+    }
+
+    /**
+     * Gets whether two cells share a house.
+     *
+     * @param cellIndex1  The index of a cell.
+     * @param cellIndex2  The index of another cell.
+     * @return            <code>true</code> if the cells are different and share a house.
+     *                    Otherwise, <code>false</code>.
+     */
+    public boolean arePeers(final int cellIndex1, final int cellIndex2) {
+        return Arrays.binarySearch(peers[cellIndex1], cellIndex2) >= 0;
+    }
+
+    /**
+     * Gets the cells of each house. The arrays are shared and must not be changed.
+     *
+     * @return  The (sorted) indexes of the cells of each house.
+     */
+    int[][] getHouses() {
+        return houses;
+    }
+
+    /**
+     * Gets the houses of each cell. The arrays are shared and must not be changed.
+     *
+     * @return  The indexes of the houses of each cell, in ascending order.
+     */
+    int[][] getCellHouses() {
+        return cellHouses;
+    }
+
+    /**
+     * Gets the peers of each cell. The arrays are shared and must not be changed.
+     *
+     * @return  The indexes of the peers of each cell, in ascending order.
+     */
+    int[][] getPeers() {
+        return peers;
+    }
+
+    /** {@inheritDoc} */
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof GridGeometry)) {
+            return false;
+        }
+        GridGeometry geometry = (GridGeometry) other;
+        return gridSize == geometry.gridSize
+                && hashCode == geometry.hashCode
+                && Arrays.deepEquals(houses, geometry.houses);
+    }
+
+    /** {@inheritDoc} */
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -0,0 +1,23 @@
+package com.betsamsoft.sudokucam.algorithms.dlx;
+
+
+
+/**
+ * This interface is implemented by any class that is to be notified when a solution to a sudoku
+ * is found, in the form of a filled-in grid.
+ * <p>
+ * Unlike a <code>SolutionListener</code>, a <code>GridSolutionListener</code> does not have to
+ * decode any dancing links nodes, and the solver creates no garbage to report a solution.
+ */
+public interface GridSolutionListener {
+
+    /**
+     * Reports that a solution to a sudoku was found.
+     *
+     * @param grid  The values of the cells, row by row. The array belongs to the solver and is
+     *              overwritten with the next solution, so it must be copied if it is kept.
+     * @return      <code>true</code> if solving has been completed. <code>false</code> if the
+     *              solver should continue generating solutions.
+     */
+    boolean solutionFound(int[] grid);
+}
@@ -21,8 +21,10 @@
 
 package com.betsamsoft.sudokucam.algorithms.dlx;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 
@@ -36,14 +38,20 @@ import java.util.Set;
  */
 public class House implements Cell.ValueListener {
 
-    /** The collection of <code>Cell</code>s in this <code>House</code>. */
-    private final Set<Cell> allCells = new HashSet<Cell>();
+    /** The collection of <code>Cell</code>s in this <code>House</code>, in the order added. */
+    private final List<Cell> allCells;
 
     /** The <code>Cell</code>s in this <code>House</code> that do not yet contain a value. */
-    private final Set<Cell> unsolvedCells = new HashSet<Cell>();
+    private final Set<Cell> unsolvedCells;
 
-    /** The name of this <code>House</code>. */
-    private final String name;
+    /** The key of the message that names this <code>House</code>. */
+    private final String nameKey;
+
+    /** The number of this <code>House</code> in its name, or 0 if the name has no number. */
+    private final int number;
+
+    /** The name of this <code>House</code>, or <code>null</code> until it is needed. */
+    private String name;
 
     /**
      * Constructs a <code>House</code>.
@@ -51,15 +59,56 @@ public class House implements Cell.ValueListener {
      * @param name  The name of this <code>House</code>.
      */
     public House(final String name) {
+        allCells = new ArrayList<Cell>();
+        unsolvedCells = new HashSet<Cell>();
+        nameKey = null;
+        number = 0;
         this.name = name;
     }
 
+    /**
+     * Constructs a <code>House</code> whose name is looked up in the <code>MessageBundle</code>
+     * when it is first needed, so models that are never displayed do not format any names.
+     *
+     * @param nameKey   The key of the message that names this <code>House</code>.
+     * @param number    The number of this <code>House</code> in its name (e.g. the row number),
+     *                  or 0 if the name has no number.
+     * @param gridSize  The number of cells this <code>House</code> will hold.
+     */
+    House(final String nameKey, final int number, final int gridSize) {
+        allCells = new ArrayList<Cell>(gridSize);
+        unsolvedCells = new HashSet<Cell>(gridSize * 2);
+        this.nameKey = nameKey;
+        this.number = number;
+    }
+
+    /**
+     * Creates the name of a house from the <code>MessageBundle</code>.
+     *
+     * @param nameKey  The key of the message that names the house.
+     * @param number   The number of the house in its name, or 0 if the name has no number.
+     * @return         The name of the house.
+     */
+    static String createName(final String nameKey, final int number) {
+        MessageBundle messageBundle = MessageBundle.getInstance();
+        if (number == 0) {
+            return messageBundle.getString(nameKey);
+        }
+        String[] values = {
+            String.valueOf(number),
+        };
+        return messageBundle.getString(nameKey, values);
+    }
+
     /**
      * Adds a <code>Cell</code> to this <code>House</code>.
      *
      * @param cell  The <code>Cell</code> to be added.
      */
     public void addCell(final Cell cell) {
+        if (allCells.contains(cell)) {
+            return;
+        }
         allCells.add(cell);
         unsolvedCells.add(cell);
 
@@ -119,6 +168,29 @@ public class House implements Cell.ValueListener {
         return cells;
     }
 
+    /**
+     * Gets the number of unsolved <code>Cell</code>s that have the specified value as a
+     * candidate. Unlike <code>getCellsWithCandidate</code>, no collection is created.
+     *
+     * @param candidateValue  A value that may be a candidate of some <code>Cell</code>s in this
+     *                        <code>House</code>.
+     * @return                The number of unsolved <code>Cell</code>s that have the specified
+     *                        value as a candidate.
+     */
+    public int getNumberOfCellsWithCandidate(final int candidateValue) {
+        int count = 0;
+
+        Iterator<Cell> iterator = getUnsolvedCells();
+        while (iterator.hasNext()) {
+            Cell cell = (Cell) iterator.next();
+            if (cell.hasCandidate(candidateValue)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
     /**
      * Gets whether a <code>Cell</code> is listed as an unsolved cell in this <code>House</code>.
      *
@@ -136,74 +208,27 @@ public class House implements Cell.ValueListener {
      * @return  The name of this <code>House</code>.
      */
     public String getName() {
+        if (name == null) {
+            name = createName(nameKey, number);
+        }
         return name;
     }
 
     /**
-     * Constructs the dancing links nodes that will be used to solve the sudoku that contains this
-     * <code>House</code>.
-     *
-     * @param solver  The <code>SudokuSolver</code> that will solve the sudoku that contains this
-     *                <code>House</code>.
+     * Rebuilds the collection of unsolved cells from the states of the cells. Used after the
+     * cells have been loaded without telling their listeners (see <code>Cell.load</code>).
      */
-    public final void createDlxNodes(final SudokuSolver solver) {
-        int gridSize = allCells.size();
-
-        /*
-         * The dancing links matrix will contain one column for each value in this house. Each
-         * column represents the placement of a value in the house. A house is "covered" when it
-         * contains each value exactly once.
-         */
-
-        // Construct the column headers.
-        ColumnHeader[] columnHeader = new ColumnHeader[gridSize + 1];
-        for (int value = 1; value <= gridSize; value++) {
-            columnHeader[value] = solver.createColumnHeader();
-        }
-
-        // Construct the nodes.
-        for (int value = 1; value <= gridSize; value++) {
-            Iterator<Cell> cells = allCells.iterator();
-
-            while (cells.hasNext()) {
-                Cell cell = (Cell) cells.next();
-
-                int row = cell.getRow();
-                int column = cell.getColumn();
-                int rowIndex = (row * gridSize + column) * gridSize + value - 1;
-                createAndLinkOneNode(solver, rowIndex, columnHeader[value]);
+    void resetUnsolvedCells() {
+        unsolvedCells.clear();
+        Iterator<Cell> cells = allCells.iterator();
+        while (cells.hasNext()) {
+            Cell cell = (Cell) cells.next();
+            if (cell.getState() == CellState.UNSOLVED) {
+                unsolvedCells.add(cell);
             }
         }
     }
 
-    /**
-     * Creates a <code>Node</code> and adds it to the dancing links matrix.
-     *
-     * @param solver        The <code>SudokuSolver</code> that will solve the sudoku that contains
-     *                      this <code>House</code>.
-     * @param rowIndex      The index of a row in the puzzle grid.
-     * @param columnHeader  The header of the column that will contain the new <code>Node</code>.
-     */
-    private static void createAndLinkOneNode(
-            final SudokuSolver solver,
-            final int rowIndex,
-            final ColumnHeader columnHeader) {
-
-        // Create the new node.
-        Node node = new Node();
-        node.applicationData = rowIndex;
-
-        // Connect it to its row.
-        Node rowHeader = solver.getRowHeader(rowIndex);
-        node.left = rowHeader.left;
-        node.right = rowHeader;
-        rowHeader.left.right = node;
-        rowHeader.left = node;
-
-        // Connect it to its column.
-        columnHeader.append(node);
-    }
-
     /**
      * Called whenever the value of a <code>Cell</code> in this <code>House</code> is placed or
      * removed. Updates cells as needed.
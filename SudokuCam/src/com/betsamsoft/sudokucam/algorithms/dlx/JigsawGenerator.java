@@ -21,11 +21,15 @@
 
 package com.betsamsoft.sudokucam.algorithms.dlx;
 
+import java.util.Random;
 import java.util.Stack;
 
 
 /**
  * This class generates jigsaw blocks for a sudoku.
+ * <p>
+ * A generator keeps its work grids in fields, so each thread should use its own instance. The
+ * shared instance returned by <code>getInstance</code> runs one generation at a time.
  *
  * @author   Pete Boton
  * @version  2009/05
@@ -42,9 +46,12 @@ public final class JigsawGenerator {
         -1, 0, 0, 1,
     };
 
-    /** The singleton instance of this class. */
+    /** The shared instance of this class. */
     private static final JigsawGenerator INSTANCE = new JigsawGenerator();
 
+    /** Random number generator. */
+    private final Random random = new Random();
+
     /** The size of the sudoku grid. */
     private int gridSize;
 
@@ -63,15 +70,15 @@ public final class JigsawGenerator {
     /** The number of cells in the region currently under construction. */
     private int regionSize;
 
-    /** Private constructor to keep anyone from instantiating this class. */
-    private JigsawGenerator() {
+    /** Constructs a <code>JigsawGenerator</code>. */
+    public JigsawGenerator() {
         // Nothing to do here.
     }
 
     /**
-     * Gets the singleton instance of this class.
+     * Gets the shared instance of this class.
      *
-     * @return  The singleton instance of this class.
+     * @return  The shared instance of this class.
      */
     public static JigsawGenerator getInstance() {
         return INSTANCE;
@@ -150,9 +157,9 @@ public final class JigsawGenerator {
         int newR = 0;
         int newC = 0;
         do {
-            int cellIndex = (int) (Math.random() * assignments[index].size());
+            int cellIndex = random.nextInt(assignments[index].size());
             Assignment p = (Assignment) assignments[index].get(cellIndex);
-            direction = (int) (Math.random() * X_INC.length);
+            direction = random.nextInt(X_INC.length);
             newR = p.row + Y_INC[direction];
             newC = p.column + X_INC[direction];
         } while (newR < 0 || newC < 0 || newR >= gridSize || newC >= gridSize
@@ -186,9 +193,9 @@ public final class JigsawGenerator {
         int newR = 0;
         int newC = 0;
         do {
-            cellIndex = (int) (Math.random() * assignments[index].size());
+            cellIndex = random.nextInt(assignments[index].size());
             Assignment p = (Assignment) assignments[index].get(cellIndex);
-            direction = (int) (Math.random() * X_INC.length);
+            direction = random.nextInt(X_INC.length);
             newR = p.row + Y_INC[direction];
             newC = p.column + X_INC[direction];
         } while (newR < 0 || newC < 0 || newR >= gridSize || newC >= gridSize
@@ -266,7 +273,7 @@ public final class JigsawGenerator {
      * @param size  The size of the grid.
      * @return      An array containing jigsaw blocks.
      */
-    public int[][] run(final int size) {
+    public synchronized int[][] run(final int size) {
         this.gridSize = size;
         boolean done = false;
         do {
@@ -21,11 +21,13 @@
 
 package com.betsamsoft.sudokucam.algorithms.dlx;
 
-import java.util.StringTokenizer;
-
 
 /**
  * This class contains the options in effect when creating a new sudoku.
+ * <p>
+ * The singleton is shared by every thread. It is only the default of the constructors that take
+ * no <code>PuzzleConfig</code>; code that creates puzzles concurrently passes its own
+ * <code>PuzzleConfig</code> instead.
  *
  * @author   Pete Boton
  * @version  2009/05
@@ -213,24 +215,28 @@ public final class Options {
      * @param line  A <code>String</code> describing a sudoku.
      */
     public void load(final String line) {
-        setDefaults();
+        PuzzleConfig config = PuzzleConfig.parse(line);
+        gridSize       = config.getGridSize();
+        blockType      = config.getBlockType();
+        blockWidth     = config.getBlockWidth();
+        blockHeight    = config.getBlockHeight();
+        usingDiagonals = config.isUsingDiagonals();
+    }
 
-        StringTokenizer st = new StringTokenizer(line);
-        while (st.hasMoreElements()) {
-            String token = st.nextToken();
-            if (token.startsWith("size=")) {
-                gridSize = Integer.parseInt(token.substring("size=".length()));
-            } else if (token.startsWith("jigsaw")) {
-                blockType = BlockType.JIGSAW;
-            } else if (token.startsWith("rectangular:")) {
-                StringTokenizer st2 = new StringTokenizer(token, ":");
-                st2.nextToken();
-                blockHeight = Integer.parseInt(st2.nextToken());
-                blockWidth  = Integer.parseInt(st2.nextToken());
-            } else if (token.startsWith("diagonals")) {
-                usingDiagonals = true;
-            }
-        }
+    /**
+     * Takes a snapshot of the current options.
+     *
+     * @return  A <code>PuzzleConfig</code> with the current options. If no create action has been
+     *          set, the action is <code>CREATE_EMPTY</code>.
+     */
+    public PuzzleConfig toConfig() {
+        return new PuzzleConfig(
+                createAction == null ? CreateAction.CREATE_EMPTY : createAction,
+                gridSize,
+                blockType,
+                blockHeight,
+                blockWidth,
+                usingDiagonals);
     }
 
     /**
@@ -0,0 +1,263 @@
+package com.betsamsoft.sudokucam.algorithms.dlx;
+
+import java.util.StringTokenizer;
+
+import com.betsamsoft.sudokucam.algorithms.dlx.Options.BlockType;
+import com.betsamsoft.sudokucam.algorithms.dlx.Options.CreateAction;
+
+
+
+/**
+ * A <code>PuzzleConfig</code> holds the options of one sudoku: how it is created, the size of
+ * its grid, the type and size of its blocks and whether it has diagonal houses.
+ * <p>
+ * Unlike the <code>Options</code> singleton, a <code>PuzzleConfig</code> cannot be changed, so it
+ * can be handed to models, solvers and generators on any number of threads at once. The
+ * singleton is only used by the constructors that take no <code>PuzzleConfig</code>, which read
+ * it as their default (see <code>Options.toConfig</code>).
+ */
+public final class PuzzleConfig {
+
+    /** The options of a standard 9x9 sudoku that is loaded from a <code>String</code>. */
+    public static final PuzzleConfig STANDARD =
+            new PuzzleConfig(CreateAction.LOAD, 9, BlockType.RECTANGULAR, 3, 3, false);
+
+    /** The action taken when the sudoku is created. */
+    private final CreateAction createAction;
+
+    /** The size of the sudoku grid. */
+    private final int gridSize;
+
+    /** The type of blocks in the sudoku. */
+    private final BlockType blockType;
+
+    /** The height of each rectangular block. */
+    private final int blockHeight;
+
+    /** The width of each rectangular block. */
+    private final int blockWidth;
+
+    /** Tells whether the sudoku has diagonal houses. */
+    private final boolean usingDiagonals;
+
+    /**
+     * Constructs a <code>PuzzleConfig</code>.
+     *
+     * @param createAction    The action taken when the sudoku is created.
+     * @param gridSize        The size of the sudoku grid.
+     * @param blockType       The type of blocks in the sudoku.
+     * @param blockHeight     The height of each rectangular block (ignored for jigsaw blocks).
+     * @param blockWidth      The width of each rectangular block (ignored for jigsaw blocks).
+     * @param usingDiagonals  Whether the sudoku has diagonal houses.
+     */
+    public PuzzleConfig(
+            final CreateAction createAction,
+            final int gridSize,
+            final BlockType blockType,
+            final int blockHeight,
+            final int blockWidth,
+            final boolean usingDiagonals) {
+        if (createAction == null || blockType == null) {
+            throw new IllegalArgumentException("The create action and block type are required");
+        }
+        if (gridSize < 1 || gridSize >= StandardSudoku.CHARACTERS.length()) {
+            throw new IllegalArgumentException("Invalid grid size: " + gridSize);
+        }
+        if (blockType == BlockType.RECTANGULAR
+                && (blockHeight < 1 || blockWidth < 1 || blockHeight * blockWidth != gridSize)) {
+            throw new IllegalArgumentException("Invalid block size: "
+                    + blockHeight + "x" + blockWidth + " for grid size " + gridSize);
+        }
+        this.createAction = createAction;
+        this.gridSize = gridSize;
+        this.blockType = blockType;
+        this.blockHeight = blockHeight;
+        this.blockWidth = blockWidth;
+        this.usingDiagonals = usingDiagonals;
+    }
+
+    /**
+     * Parses the options line of a sudoku, as written by <code>toString</code> (e.g.
+     * <code>": size=6 rectangular:2:3"</code>). Options that are not mentioned keep their
+     * default values.
+     *
+     * @param line  A <code>String</code> describing a sudoku.
+     * @return      The options of the sudoku, to be loaded (<code>CreateAction.LOAD</code>).
+     */
+    public static PuzzleConfig parse(final String line) {
+        int gridSize = 9;
+        BlockType blockType = BlockType.RECTANGULAR;
+        int blockHeight = 3;
+        int blockWidth = 3;
+        boolean usingDiagonals = false;
+
+        StringTokenizer st = new StringTokenizer(line);
+        while (st.hasMoreElements()) {
+            String token = st.nextToken();
+            if (token.startsWith("size=")) {
+                gridSize = Integer.parseInt(token.substring("size=".length()));
+            } else if (token.startsWith("jigsaw")) {
+                blockType = BlockType.JIGSAW;
+            } else if (token.startsWith("rectangular:")) {
+                StringTokenizer st2 = new StringTokenizer(token, ":");
+                st2.nextToken();
+                blockHeight = Integer.parseInt(st2.nextToken());
+                blockWidth  = Integer.parseInt(st2.nextToken());
+            } else if (token.startsWith("diagonals")) {
+                usingDiagonals = true;
+            }
+        }
+
+        return new PuzzleConfig(
+                CreateAction.LOAD, gridSize, blockType, blockHeight, blockWidth, usingDiagonals);
+    }
+
+    /**
+     * Gets the options of a sudoku <code>String</code>: parses its first line if that line starts
+     * with ':', otherwise the options are those of <code>STANDARD</code>.
+     *
+     * @param puzzleString  A <code>String</code> containing a sudoku.
+     * @return              The options of the sudoku, to be loaded
+     *                      (<code>CreateAction.LOAD</code>).
+     */
+    public static PuzzleConfig fromPuzzleString(final String puzzleString) {
+        if (puzzleString.length() > 0 && puzzleString.charAt(0) == ':') {
+            int end = puzzleString.indexOf('\n');
+            return parse(end < 0 ? puzzleString : puzzleString.substring(0, end));
+        }
+        return STANDARD;
+    }
+
+    /**
+     * Gets a copy of this <code>PuzzleConfig</code> with another create action.
+     *
+     * @param action  The action taken when the sudoku is created.
+     * @return        A <code>PuzzleConfig</code> with the same grid options and the specified
+     *                create action.
+     */
+    public PuzzleConfig withCreateAction(final CreateAction action) {
+        if (action == createAction) {
+            return this;
+        }
+        return new PuzzleConfig(
+                action, gridSize, blockType, blockHeight, blockWidth, usingDiagonals);
+    }
+
+    /**
+     * Gets the action taken when the sudoku is created.
+     *
+     * @return  The action taken when the sudoku is created.
+     */
+    public CreateAction getCreateAction() {
+        return createAction;
+    }
+
+    /**
+     * Gets the size of the sudoku grid.
+     *
+     * @return  The size of the sudoku grid.
+     */
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    /**
+     * Gets the type of blocks in the sudoku.
+     *
+     * @return  The type of blocks in the sudoku.
+     */
+    public BlockType getBlockType() {
+        return blockType;
+    }
+
+    /**
+     * Gets the height of each rectangular block.
+     *
+     * @return  The height of each rectangular block.
+     */
+    public int getBlockHeight() {
+        return blockHeight;
+    }
+
+    /**
+     * Gets the width of each rectangular block.
+     *
+     * @return  The width of each rectangular block.
+     */
+    public int getBlockWidth() {
+        return blockWidth;
+    }
+
+    /**
+     * Gets whether the sudoku has diagonal houses.
+     *
+     * @return  Whether the sudoku has diagonal houses.
+     */
+    public boolean isUsingDiagonals() {
+        return usingDiagonals;
+    }
+
+    /**
+     * Gets the geometry of a sudoku with these options. Only rectangular blocks are known in
+     * advance; the blocks of a jigsaw sudoku belong to the puzzle.
+     *
+     * @return  The geometry of the grid.
+     * @throws IllegalStateException  If the sudoku has jigsaw blocks.
+     */
+    public GridGeometry getGeometry() {
+        if (blockType != BlockType.RECTANGULAR) {
+            throw new IllegalStateException("The blocks of a jigsaw sudoku are not known");
+        }
+        return GridGeometry.getInstance(gridSize, blockHeight, blockWidth, usingDiagonals);
+    }
+
+    /** {@inheritDoc} */
+    public boolean equals(final Object other) {
+        if (!(other instanceof PuzzleConfig)) {
+            return false;
+        }
+        PuzzleConfig config = (PuzzleConfig) other;
+        return createAction == config.createAction
+                && gridSize == config.gridSize
+                && blockType == config.blockType
+                && (blockType != BlockType.RECTANGULAR
+                        || blockHeight == config.blockHeight && blockWidth == config.blockWidth)
+                && usingDiagonals == config.usingDiagonals;
+    }
+
+    /** {@inheritDoc} */
+    public int hashCode() {
+        int hash = gridSize * 31 + (usingDiagonals ? 1 : 0);
+        if (blockType == BlockType.RECTANGULAR) {
+            hash = hash * 31 + blockHeight;
+        }
+        return hash;
+    }
+
+    /**
+     * Creates the options line of a sudoku with these options, empty for a standard 9x9 sudoku.
+     *
+     * @return  A <code>String</code> representation of the <code>PuzzleConfig</code>.
+     */
+    public String toString() {
+        StringBuffer buffer = new StringBuffer(64);
+
+        if (gridSize != 9) {
+            buffer.append("size=" + gridSize + " ");
+        }
+        if (blockType == BlockType.JIGSAW) {
+            buffer.append("jigsaw ");
+        } else if (blockWidth != 3 || blockHeight != 3) {
+            buffer.append("rectangular:" + blockHeight + ":" + blockWidth + " ");
+        }
+        if (usingDiagonals) {
+            buffer.append("diagonals ");
+        }
+
+        if (buffer.length() > 0) {
+            buffer.insert(0, ": ");
+        }
+
+        return buffer.toString();
+    }
+}
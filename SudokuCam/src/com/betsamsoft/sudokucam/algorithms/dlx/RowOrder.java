@@ -0,0 +1,60 @@
+package com.betsamsoft.sudokucam.algorithms.dlx;
+
+import java.util.Random;
+
+
+
+/**
+ * A <code>RowOrder</code> decides the order in which a dancing links search tries the rows of the
+ * column it has chosen. By default the rows are tried from top to bottom.
+ */
+public abstract class RowOrder {
+
+    /** Tries the rows from top to bottom, walking the column directly without buffering. */
+    public static final RowOrder NATURAL = new RowOrder() {
+        protected void order(final int[] rows, final int from, final int to) {
+        }
+    };
+
+    /**
+     * Creates an order that tries the rows of each column in random order. Every search starts
+     * over from the seed, so a search can be repeated.
+     *
+     * @param seed  The seed of the random number generator.
+     * @return      The order.
+     */
+    public static RowOrder random(final long seed) {
+        return new RowOrder() {
+            private final Random random = new Random(seed);
+
+            protected void startSearch() {
+                random.setSeed(seed);
+            }
+
+            protected void order(final int[] rows, final int from, final int to) {
+                for (int i = to - 1; i > from; i--) {
+                    int j = from + random.nextInt(i - from + 1);
+                    int row = rows[i];
+                    rows[i] = rows[j];
+                    rows[j] = row;
+                }
+            }
+        };
+    }
+
+    /**
+     * Called when a search starts. Orders that keep some state (e.g. a random number generator)
+     * reset it here. The branches of a parallel search do not call it.
+     */
+    protected void startSearch() {
+    }
+
+    /**
+     * Puts the rows of a column into the order in which they are to be tried.
+     *
+     * @param rows  The rows of the column, from top to bottom. Only their order may be changed.
+     * @param from  The position of the first row in <code>rows</code>.
+     * @param to    The position after the last row in <code>rows</code>.
+     */
+    protected abstract void order(int[] rows, int from, int to);
+}
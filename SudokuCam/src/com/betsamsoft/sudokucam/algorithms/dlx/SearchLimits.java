@@ -0,0 +1,96 @@
+package com.betsamsoft.sudokucam.algorithms.dlx;
+
+
+
+/**
+ * <code>SearchLimits</code> bound the work a solver may do: a deadline, a budget of search nodes
+ * (or iterations), and a cancellation flag that another thread can raise at any time. A solver
+ * checks its limits once per node, and gives up as soon as one of them is reached.
+ * <p>
+ * Checking is cheap: the cancellation flag and the node budget are plain comparisons, and the
+ * clock is only read once every <code>CLOCK_INTERVAL</code> nodes.
+ */
+public class SearchLimits {
+
+    /** The number of nodes between two readings of the clock. Must be a power of 2. */
+    private static final int CLOCK_INTERVAL = 1024;
+
+    /** Tells whether the search has been cancelled. */
+    private volatile boolean cancelled;
+
+    /** The number of nodes that a search may visit. */
+    private long nodeBudget = Long.MAX_VALUE;
+
+    /** Tells whether a deadline has been set. */
+    private boolean usingDeadline;
+
+    /** The deadline, as a value of <code>System.nanoTime()</code>. */
+    private long deadline;
+
+    /**
+     * Cancels every search that uses these limits. The searches give up at their next node. This
+     * method may be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Gets whether the searches that use these limits have been cancelled.
+     *
+     * @return  <code>true</code> if <code>cancel</code> has been called.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Sets the number of nodes (or iterations) that a search may visit before it gives up.
+     *
+     * @param nodeBudget  The number of nodes that a search may visit.
+     */
+    public void setNodeBudget(final long nodeBudget) {
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * Sets a deadline that lies the specified time from now.
+     *
+     * @param milliseconds  The time a search may take from now, in milliseconds.
+     */
+    public void setTimeout(final long milliseconds) {
+        setDeadline(System.nanoTime() + milliseconds * 1000000L);
+    }
+
+    /**
+     * Sets the deadline after which a search gives up.
+     *
+     * @param nanoTime  The deadline, as a value of <code>System.nanoTime()</code>.
+     */
+    public void setDeadline(final long nanoTime) {
+        deadline = nanoTime;
+        usingDeadline = true;
+    }
+
+    /**
+     * Checks whether a search has reached any of these limits.
+     *
+     * @param nodes  The number of nodes the search has visited so far.
+     * @return       The outcome that tells why the search must give up, or <code>null</code> if it
+     *               may go on.
+     */
+    public SearchOutcome check(final long nodes) {
+        if (cancelled) {
+            return SearchOutcome.CANCELLED;
+        }
+        if (nodes >= nodeBudget) {
+            return SearchOutcome.BUDGET_EXHAUSTED;
+        }
+        if (usingDeadline
+                && (nodes & (CLOCK_INTERVAL - 1)) == 0
+                && System.nanoTime() - deadline >= 0) {
+            return SearchOutcome.TIMED_OUT;
+        }
+        return null;
+    }
+}
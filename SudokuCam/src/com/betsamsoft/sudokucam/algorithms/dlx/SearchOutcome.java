@@ -0,0 +1,60 @@
+package com.betsamsoft.sudokucam.algorithms.dlx;
+
+
+
+/**
+ * <code>SearchOutcome</code> tells how a search ended: either it completed (all solutions were
+ * found, or a listener or limit on the number of solutions stopped it), or it gave up because
+ * its <code>SearchLimits</code> were reached.
+ */
+public final class SearchOutcome {
+
+    /** Indicates that the search ran to completion. */
+    public static final SearchOutcome COMPLETED = new SearchOutcome("completed", false);
+
+    /** Indicates that the search gave up because it was cancelled. */
+    public static final SearchOutcome CANCELLED = new SearchOutcome("cancelled", true);
+
+    /** Indicates that the search gave up because its deadline passed. */
+    public static final SearchOutcome TIMED_OUT = new SearchOutcome("timed out", true);
+
+    /** Indicates that the search gave up because it visited as many nodes as it was allowed. */
+    public static final SearchOutcome BUDGET_EXHAUSTED =
+            new SearchOutcome("budget exhausted", true);
+
+    /** The name of this outcome. */
+    private final String name;
+
+    /** Tells whether the search gave up before it was finished. */
+    private final boolean givenUp;
+
+    /**
+     * Constructs a <code>SearchOutcome</code>.
+     *
+     * @param name     The name of this outcome.
+     * @param givenUp  Whether the search gave up before it was finished.
+     */
+    private SearchOutcome(final String name, final boolean givenUp) {
+        this.name = name;
+        this.givenUp = givenUp;
+    }
+
+    /**
+     * Gets whether the search gave up before it was finished. The results of such a search are
+     * incomplete: it may have missed solutions.
+     *
+     * @return  <code>true</code> if the search gave up. Otherwise, <code>false</code>.
+     */
+    public boolean hasGivenUp() {
+        return givenUp;
+    }
+
+    /**
+     * Gets the name of this outcome.
+     *
+     * @return  The name of this outcome.
+     */
+    public String toString() {
+        return name;
+    }
+}
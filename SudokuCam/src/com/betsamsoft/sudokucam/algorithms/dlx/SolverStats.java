@@ -0,0 +1,182 @@
+package com.betsamsoft.sudokucam.algorithms.dlx;
+
+
+
+/**
+ * A <code>SolverStats</code> records how much work a dancing links search did. A solver only
+ * records statistics when a <code>SolverStats</code> has been attached to it with
+ * <code>setStats</code>; otherwise the search pays nothing but a few <code>null</code> checks.
+ * <p>
+ * The numbers describe the most recent search. They are cleared each time a search starts.
+ */
+public class SolverStats {
+
+    /** The number of buckets in the branching-factor histogram when no number is given. */
+    private static final int DEFAULT_HISTOGRAM_SIZE = 32;
+
+    /** The number of link updates (nodes removed from a column) made while covering columns. */
+    long updates;
+
+    /** The number of nodes of the search tree that were visited. */
+    long nodes;
+
+    /** The deepest level of the search tree that was reached. */
+    int maxDepth;
+
+    /** The number of solutions that were found. */
+    long solutions;
+
+    /** The time the search took, in nanoseconds. */
+    long elapsedNanos;
+
+    /**
+     * The number of times each branching factor occurred, i.e. how often the chosen column held 0,
+     * 1, 2, ... rows. The last bucket also counts every larger branching factor.
+     */
+    private final long[] branchingHistogram;
+
+    /** Constructs a <code>SolverStats</code>. */
+    public SolverStats() {
+        this(DEFAULT_HISTOGRAM_SIZE);
+    }
+
+    /**
+     * Constructs a <code>SolverStats</code>.
+     *
+     * @param histogramSize  The number of buckets in the branching-factor histogram.
+     */
+    public SolverStats(final int histogramSize) {
+        branchingHistogram = new long[histogramSize];
+    }
+
+    /** Clears all of the statistics. */
+    public void reset() {
+        updates = 0;
+        nodes = 0;
+        maxDepth = 0;
+        solutions = 0;
+        elapsedNanos = 0;
+        for (int i = 0; i < branchingHistogram.length; i++) {
+            branchingHistogram[i] = 0;
+        }
+    }
+
+    /**
+     * Records that a column with the specified number of rows was chosen for branching.
+     *
+     * @param branchingFactor  The number of rows in the chosen column.
+     */
+    void recordBranching(final int branchingFactor) {
+        branchingHistogram[Math.min(branchingFactor, branchingHistogram.length - 1)]++;
+    }
+
+    /**
+     * Adds the statistics of another search (e.g. one branch of a parallel search) to these.
+     *
+     * @param other        The statistics to be added.
+     * @param depthOffset  The depth at which the other search started.
+     */
+    void add(final SolverStats other, final int depthOffset) {
+        updates += other.updates;
+        nodes += other.nodes;
+        maxDepth = Math.max(maxDepth, other.maxDepth + depthOffset);
+        solutions += other.solutions;
+        int n = Math.min(branchingHistogram.length, other.branchingHistogram.length);
+        for (int i = 0; i < n; i++) {
+            branchingHistogram[i] += other.branchingHistogram[i];
+        }
+    }
+
+    /**
+     * Gets the number of link updates, counted the way Knuth counts them: one for each node
+     * removed from its column while covering a column.
+     *
+     * @return  The number of link updates.
+     */
+    public long getUpdates() {
+        return updates;
+    }
+
+    /**
+     * Gets the number of nodes of the search tree that were visited.
+     *
+     * @return  The number of nodes of the search tree that were visited.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the deepest level of the search tree that was reached.
+     *
+     * @return  The deepest level of the search tree that was reached.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Gets the number of solutions that were found.
+     *
+     * @return  The number of solutions that were found.
+     */
+    public long getSolutions() {
+        return solutions;
+    }
+
+    /**
+     * Gets the time the search took.
+     *
+     * @return  The time the search took, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets how often a column with the specified number of rows was chosen for branching.
+     *
+     * @param branchingFactor  A number of rows.
+     * @return                 The number of times a column with that many rows was chosen. The
+     *                         last bucket also counts every larger branching factor.
+     */
+    public long getBranchingCount(final int branchingFactor) {
+        return branchingHistogram[Math.min(branchingFactor, branchingHistogram.length - 1)];
+    }
+
+    /**
+     * Gets the number of buckets in the branching-factor histogram.
+     *
+     * @return  The number of buckets in the branching-factor histogram.
+     */
+    public int getHistogramSize() {
+        return branchingHistogram.length;
+    }
+
+    /**
+     * Creates a <code>String</code> representation of the statistics.
+     *
+     * @return  A <code>String</code> representation of the statistics.
+     */
+    public String toString() {
+        StringBuffer buffer = new StringBuffer(128);
+        buffer.append("updates=").append(updates);
+        buffer.append(" nodes=").append(nodes);
+        buffer.append(" maxDepth=").append(maxDepth);
+        buffer.append(" solutions=").append(solutions);
+        buffer.append(" time=").append(elapsedNanos / 1000).append("us");
+        buffer.append(" branching=[");
+        int last = branchingHistogram.length - 1;
+        while (last > 0 && branchingHistogram[last] == 0) {
+            last--;
+        }
+        for (int i = 0; i <= last; i++) {
+            if (i > 0) {
+                buffer.append(' ');
+            }
+            buffer.append(branchingHistogram[i]);
+        }
+        buffer.append(']');
+        return buffer.toString();
+    }
+}
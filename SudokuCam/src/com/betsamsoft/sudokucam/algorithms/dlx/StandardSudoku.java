@@ -21,8 +21,6 @@
 
 package com.betsamsoft.sudokucam.algorithms.dlx;
 
-import java.util.Iterator;
-import java.util.List;
 import java.util.Random;
 import java.util.StringTokenizer;
 
@@ -56,13 +54,36 @@ public class StandardSudoku extends AbstractPuzzleModel {
     /** A line of text containing part of a sudoku. */
     private String line;
 
-    /** Constructs a <code>StandardSudoku</code>. */
+    /** Constructs a <code>StandardSudoku</code> with the options of the singleton. */
     public StandardSudoku() {
-        if (Options.getInstance().getCreateAction() == Options.CreateAction.GENERATE) {
+        this(Options.getInstance().toConfig());
+    }
+
+    /**
+     * Constructs a <code>StandardSudoku</code>. If the create action of the options is
+     * <code>GENERATE</code>, a random sudoku is generated.
+     *
+     * @param config  The options of the sudoku.
+     */
+    public StandardSudoku(final PuzzleConfig config) {
+        super(config);
+        if (config.getCreateAction() == Options.CreateAction.GENERATE) {
             generateRandomSudoku();
         }
     }
 
+    /**
+     * Constructs a <code>StandardSudoku</code> from the values of a grid, without parsing a
+     * <code>String</code>. The create action of the options is ignored: the puzzle is loaded.
+     *
+     * @param config  The options of the sudoku.
+     * @param puzzle  The value of each cell, row by row (0 for an empty cell).
+     */
+    public StandardSudoku(final PuzzleConfig config, final int[] puzzle) {
+        super(config.withCreateAction(Options.CreateAction.LOAD));
+        loadPuzzle(puzzle);
+    }
+
     /**
      * Constructs a <code>StandardSudoku</code> from a <code>String</code>.
      *
@@ -128,6 +149,7 @@ public class StandardSudoku extends AbstractPuzzleModel {
      * @param st  <code>StringTokenizer</code> whose next tokens describe a sudoku.
      */
     private void setCells(final StringTokenizer st) {
+        int[] puzzle = new int[getGridSize() * getGridSize()];
         int stringIndex = 0;
         for (int row = 0; row < getGridSize(); row++) {
             for (int column = 0; column < getGridSize(); column++) {
@@ -136,14 +158,7 @@ public class StandardSudoku extends AbstractPuzzleModel {
                     stringIndex++;
                     c = line.charAt(stringIndex);
                 }
-                int value = CHARACTERS.indexOf(c);
-                originalPuzzle[row * getGridSize() + column] = value;
-                Cell cell = getCellAt(row, column);
-                if (value > 0) {
-                    cell.setStateAndValue(CellState.GIVEN, value, null);
-                } else {
-                    cell.setStateAndValue(CellState.UNSOLVED, 0, null);
-                }
+                puzzle[row * getGridSize() + column] = CHARACTERS.indexOf(c);
                 stringIndex++;
             }
             if (row < getGridSize() - 1 && stringIndex >= line.length()) {
@@ -151,6 +166,7 @@ public class StandardSudoku extends AbstractPuzzleModel {
                 stringIndex = 0;
             }
         }
+        loadPuzzle(puzzle);
     }
 
     /** Generates a random sudoku. */
@@ -168,64 +184,25 @@ public class StandardSudoku extends AbstractPuzzleModel {
         minimize();
 
         // originalPuzzle contains a valid, minimized sudoku. Copy the values into the workGrid.
-        for (int row = 0; row < getGridSize(); row++) {
-            for (int column = 0; column < getGridSize(); column++) {
-                int cellIndex = row * getGridSize() + column;
-                int value = originalPuzzle[cellIndex];
-                if (value > 0) {
-                    getCellAt(row, column).setStateAndValue(CellState.GIVEN, value, null);
-                }
-            }
-        }
+        loadPuzzle(originalPuzzle);
     }
 
-    /** Generates a random solution grid. */
+    /**
+     * Generates a random solution grid. The solver tries the rows of each column (i. e., the
+     * candidates of each cell, or the cells of each value in a house) in random order, so the
+     * first solution of the empty grid is a random grid. No seeding or retrying is needed.
+     */
     private void generateSolutionGrid() {
-        int size = getGridSize();
         SudokuSolver solver1 = new SudokuSolver(this);
-        solver1.addSolutionListener(new SolutionListener() {
-            public boolean solutionFound(final List<Node> solutionNodes) {
-                numberOfSolutions++;
-
-                Iterator<Node> iterator = solutionNodes.iterator();
-                while (iterator.hasNext()) {
-                    Node node = (Node) iterator.next();
-                    int index = node.applicationData / getGridSize();
-                    int value = node.applicationData % getGridSize() + 1;
-                    originalPuzzle[index] = value;
-                }
-
+        solver1.setColumnStrategy(ColumnStrategy.random(random.nextLong()));
+        solver1.setRowOrder(RowOrder.random(random.nextLong()));
+        solver1.addGridSolutionListener(new GridSolutionListener() {
+            public boolean solutionFound(final int[] grid) {
+                System.arraycopy(grid, 0, originalPuzzle, 0, grid.length);
                 return true;
             }
         });
-
-        int limit = size;
-        do {
-            // Clear the grid.
-            for (int cellIndex = 0; cellIndex < size * size; cellIndex++) {
-                originalPuzzle[cellIndex] = 0;
-            }
-
-            // Seed the grid with a few random numbers.
-            for (int value = 1; value <= limit; value++) {
-
-                // Generate the index of an empty cell.
-                int cellIndex = 0;
-                do {
-                    cellIndex = random.nextInt(size * size);
-                } while (originalPuzzle[cellIndex] != 0);
-
-                // And put the value into the grid.
-                originalPuzzle[cellIndex] = value;
-            }
-
-            // Solve the grid.
-            solver1.placeGivens(getOriginalPuzzle());
-            numberOfSolutions = 0;
-            solver1.solve();
-            solver1.removeAllGivens();
-            limit--;
-        } while (numberOfSolutions == 0);
+        solver1.solve();
     }
 
     /** Randomly removes values from a sudoku grid. */
@@ -248,12 +225,6 @@ public class StandardSudoku extends AbstractPuzzleModel {
         int numberOfCells = size * size;
 
         SudokuSolver solver2 = new SudokuSolver(this);
-        solver2.addSolutionListener(new SolutionListener() {
-            public boolean solutionFound(final List<Node> solutionNodes) {
-                numberOfSolutions++;
-                return false;
-            }
-        });
 
         int failureCount = 0;
         do {
@@ -276,10 +247,9 @@ public class StandardSudoku extends AbstractPuzzleModel {
                 originalPuzzle[cellIndex[i]] = 0;
             }
 
-            // Solve the resulting sudoku.
-            numberOfSolutions = 0;
+            // Solve the resulting sudoku. Two solutions are enough to know it is not unique.
             solver2.placeGivens(getOriginalPuzzle());
-            solver2.solve();
+            numberOfSolutions = solver2.countSolutions(2);
             solver2.removeAllGivens();
 
             // If the solution is no longer unique, put the values back and record a failure.
@@ -299,22 +269,6 @@ public class StandardSudoku extends AbstractPuzzleModel {
         int size = getGridSize();
         int numberOfCells = size * size;
         SudokuSolver solver = new SudokuSolver(this);
-        solver.addSolutionListener(new SolutionListener() {
-
-            /**
-             * This is called when a solution is found. It merely
-             * increments the number of solutions.
-             *
-             * @param solutionNodes  The <code>Node</code>s that make up
-             *                       the generated solution.
-             * @return               <code>false</code> to tell the solver
-             *                       to continue generating solutions.
-             */
-            public boolean solutionFound(final List<Node> solutionNodes) {
-                numberOfSolutions++;
-                return false;
-            }
-        });
 
         for (int cellIndex1 = 0; cellIndex1 < (numberOfCells + 1) / 2; cellIndex1++) {
             if (originalPuzzle[cellIndex1] != 0) {
@@ -326,10 +280,9 @@ public class StandardSudoku extends AbstractPuzzleModel {
                 originalPuzzle[cellIndex1] = 0;
                 originalPuzzle[cellIndex2] = 0;
 
-                // Solve the resulting sudoku.
-                numberOfSolutions = 0;
+                // Solve the resulting sudoku. Two solutions are enough to know it is not unique.
                 solver.placeGivens(getOriginalPuzzle());
-                solver.solve();
+                numberOfSolutions = solver.countSolutions(2);
                 solver.removeAllGivens();
 
                 // If the solution is no longer unique, put the values back.
@@ -362,16 +315,16 @@ public class StandardSudoku extends AbstractPuzzleModel {
      * @return  A string representation of this <code>StandardSudoku</code>.
      */
     public String toString() {
-        Options options = Options.getInstance();
+        PuzzleConfig config = getConfig();
         StringBuffer result = new StringBuffer();
 
-        String optionsString = options.toString();
+        String optionsString = config.toString();
         if (optionsString.length() > 0) {
             result.append(optionsString);
             result.append('\n');
         }
 
-        if (options.getBlockType() == Options.BlockType.JIGSAW) {
+        if (config.getBlockType() == Options.BlockType.JIGSAW) {
             for (int row = 0; row < getGridSize(); row++) {
                 for (int column = 0; column < getGridSize(); column++) {
                     result.append(
@@ -21,7 +21,11 @@
 
 package com.betsamsoft.sudokucam.algorithms.dlx;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -60,79 +64,332 @@ import java.util.Iterator;
  * @author   Pete Boton
  * @version  2009/05
  */
-public class SudokuSolver extends AbstractDLXSolver {
+public class SudokuSolver extends ArrayDLXSolver {
 
-    /** The sudoku puzzle to be solved. */
-    private final AbstractPuzzleModel puzzle;
+    /** The number of matrix templates that are kept for reuse. */
+    private static final int NUMBER_OF_TEMPLATES = 16;
+
+    /**
+     * The matrices that have already been built, keyed by the layout of their grids. Building a
+     * matrix takes thousands of allocations, so each layout is built once and every new solver
+     * copies its template. The least recently used template is dropped when the cache is full.
+     */
+    private static final Map<GridGeometry, Template> TEMPLATES =
+            new LinkedHashMap<GridGeometry, Template>(NUMBER_OF_TEMPLATES, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                protected boolean removeEldestEntry(
+                        final Map.Entry<GridGeometry, Template> eldest) {
+                    return size() > NUMBER_OF_TEMPLATES;
+                }
+            };
+
+    /** The template from which this solver's matrix was copied. */
+    private final Template template;
 
     /** The number of <code>Cell</code>s in each row and each column of the sudoku to be solved. */
     private final int gridSize;
 
+    /** The grid handed to the <code>GridSolutionListener</code>s, reused for every solution. */
+    private final int[] solutionGrid;
+
+    /** The given value of each cell, or 0 if the cell has no given. */
+    private final int[] givens;
+
+    /**
+     * The value of each clue that was left out of the matrix when it was built, or 0 if the cell
+     * had no such clue.
+     */
+    private final int[] clues;
+
+    /** The clues that were skipped when the matrix was built, because of conflicts. */
+    private final List<GivenConflict> clueConflicts;
+
+    /** The listeners to be notified with a filled-in grid whenever a solution is found. */
+    private final List<GridSolutionListener> gridListeners = new ArrayList<GridSolutionListener>();
+
     /**
      * Constructs a <code>SudokuSolver</code>.
      *
      * @param puzzle  The sudoku to be solved.
      */
     public SudokuSolver(final AbstractPuzzleModel puzzle) {
-        this.puzzle = puzzle;
-        gridSize = puzzle.getGridSize();
-        createNodes();
+        this(getTemplate(puzzle.getGeometry()));
     }
 
-    /** Creates the dancing links nodes that will be used to solve a sudoku. */
-    protected final void createNodes() {
-        createHeaders(gridSize);
+    /**
+     * Constructs a <code>SudokuSolver</code> for a <code>CompactPuzzleModel</code>.
+     *
+     * @param puzzle  The sudoku to be solved.
+     */
+    public SudokuSolver(final CompactPuzzleModel puzzle) {
+        this(getTemplate(puzzle.getGeometry()));
+    }
 
-        // Each house will construct its own nodes and add them to the dancing links matrix.
-        Iterator<House> houses = puzzle.getAllHouses();
-        int matrixColumnIndex = gridSize * gridSize;
-        while (houses.hasNext()){
-            House house = (House) houses.next();
-            house.createDlxNodes(this);
-            matrixColumnIndex += gridSize;
-        }
+    /**
+     * Constructs a <code>SudokuSolver</code> for a <code>CompactPuzzleModel</code>, whose matrix
+     * holds only what the clues leave open. See
+     * <code>SudokuSolver(AbstractPuzzleModel, int[])</code>.
+     *
+     * @param puzzle      The sudoku to be solved.
+     * @param puzzleGrid  An array of integers containing the clues of the sudoku.
+     */
+    public SudokuSolver(final CompactPuzzleModel puzzle, final int[] puzzleGrid) {
+        this(getTemplate(puzzle.getGeometry()), puzzleGrid);
     }
 
     /**
-     * Creates the headers of the dancing links matrix.
+     * Constructs a <code>SudokuSolver</code> for a sudoku with rectangular blocks, from its
+     * options alone.
      *
-     * @param size  The size of the puzzle grid.
+     * @param config  The options of the sudoku to be solved.
+     * @throws IllegalStateException  If the sudoku has jigsaw blocks.
      */
-    private void createHeaders(final int size) {
+    public SudokuSolver(final PuzzleConfig config) {
+        this(getTemplate(config.getGeometry()));
+    }
 
-        // Create the column headers.
-        for (int cellIndex = 0; cellIndex < size * size; cellIndex++) {
-            createColumnHeader();
+    /**
+     * Constructs a <code>SudokuSolver</code> for a sudoku with rectangular blocks, from its
+     * options alone, whose matrix holds only what the clues leave open. See
+     * <code>SudokuSolver(AbstractPuzzleModel, int[])</code>.
+     *
+     * @param config      The options of the sudoku to be solved.
+     * @param puzzleGrid  An array of integers containing the clues of the sudoku.
+     * @throws IllegalStateException  If the sudoku has jigsaw blocks.
+     */
+    public SudokuSolver(final PuzzleConfig config, final int[] puzzleGrid) {
+        this(getTemplate(config.getGeometry()), puzzleGrid);
+    }
+
+    /**
+     * Constructs a <code>SudokuSolver</code> for a grid of rectangular blocks, without a puzzle
+     * model. The houses are the rows, the columns and the blocks, in the same order as in a
+     * <code>StandardSudoku</code> with these options, so the matrix is the same.
+     *
+     * @param gridSize     The number of cells in each row and each column.
+     * @param blockHeight  The number of rows of each block.
+     * @param blockWidth   The number of columns of each block.
+     */
+    public SudokuSolver(final int gridSize, final int blockHeight, final int blockWidth) {
+        this(getTemplate(GridGeometry.getInstance(gridSize, blockHeight, blockWidth, false)));
+    }
+
+    /**
+     * Constructs a <code>SudokuSolver</code> for a grid of rectangular blocks, without a puzzle
+     * model, whose matrix holds only what the clues leave open. See
+     * <code>SudokuSolver(AbstractPuzzleModel, int[])</code>.
+     *
+     * @param gridSize     The number of cells in each row and each column.
+     * @param blockHeight  The number of rows of each block.
+     * @param blockWidth   The number of columns of each block.
+     * @param puzzleGrid   An array of integers containing the clues of the sudoku.
+     */
+    public SudokuSolver(final int gridSize, final int blockHeight, final int blockWidth,
+            final int[] puzzleGrid) {
+        this(getTemplate(GridGeometry.getInstance(gridSize, blockHeight, blockWidth, false)), puzzleGrid);
+    }
+
+    /**
+     * Constructs a <code>SudokuSolver</code> from the template of a grid layout.
+     *
+     * @param template  The template of the sudoku to be solved.
+     */
+    private SudokuSolver(final Template template) {
+        super(template.getMatrix());
+        this.template = template;
+        gridSize = template.gridSize;
+        solutionGrid = new int[gridSize * gridSize];
+        givens = new int[gridSize * gridSize];
+        clues = new int[gridSize * gridSize];
+        clueConflicts = new ArrayList<GivenConflict>();
+    }
+
+    /**
+     * Constructs a <code>SudokuSolver</code> whose matrix holds only what the clues leave open.
+     * The rows of the clues, the rows they rule out and the columns they cover are never created,
+     * so for a typical puzzle the matrix is a fraction of the full one, and it is built without
+     * copying the full matrix first.
+     * <p>
+     * The clues are baked into the matrix: they are part of every solution, and they cannot be
+     * removed with <code>removeGiven</code>. Clues that conflict with clues before them are
+     * skipped, as with <code>placeGivens</code>; see <code>getClueConflicts</code>.
+     *
+     * @param puzzle      The sudoku to be solved.
+     * @param puzzleGrid  An array of integers containing the clues of the sudoku.
+     */
+    public SudokuSolver(final AbstractPuzzleModel puzzle, final int[] puzzleGrid) {
+        this(getTemplate(puzzle.getGeometry()), puzzleGrid);
+    }
+
+    /**
+     * Constructs a <code>SudokuSolver</code> whose matrix holds only what the clues leave open.
+     *
+     * @param template    The template of the sudoku to be solved.
+     * @param puzzleGrid  An array of integers containing the clues of the sudoku.
+     */
+    private SudokuSolver(final Template template, final int[] puzzleGrid) {
+        this.template = template;
+        gridSize = template.gridSize;
+        int numberOfCells = gridSize * gridSize;
+        solutionGrid = new int[numberOfCells];
+        givens = new int[numberOfCells];
+        clues = new int[numberOfCells];
+        clueConflicts = new ArrayList<GivenConflict>();
+
+        /*
+         * The constraints are numbered as the columns of the full matrix: one for each cell, then
+         * one for each value in each house. Find the clue that covers each constraint, if any.
+         */
+        int[][] cellHouses = template.cellHouses;
+        int numberOfConstraints = numberOfCells + template.houses.length * gridSize;
+        int[] owner = new int[numberOfConstraints];
+        Arrays.fill(owner, -1);
+        for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++) {
+            int value = puzzleGrid[cellIndex];
+            if (value == 0) {
+                continue;
+            }
+            if (value < 1 || value > gridSize) {
+                throw new IllegalArgumentException("Invalid value: " + value);
+            }
+            int other = -1;
+            for (int i = 0; i < cellHouses[cellIndex].length && other < 0; i++) {
+                other = owner[numberOfCells + cellHouses[cellIndex][i] * gridSize + value - 1];
+            }
+            if (other >= 0) {
+                clueConflicts.add(new GivenConflict(cellIndex, value, other, clues[other]));
+                continue;
+            }
+            clues[cellIndex] = value;
+            owner[cellIndex] = cellIndex;
+            for (int i = 0; i < cellHouses[cellIndex].length; i++) {
+                owner[numberOfCells + cellHouses[cellIndex][i] * gridSize + value - 1] = cellIndex;
+            }
+        }
+
+        // Only the constraints that no clue covers get a column.
+        int[] columnOf = new int[numberOfConstraints];
+        int numberOfColumns = 0;
+        for (int constraint = 0; constraint < numberOfConstraints; constraint++) {
+            columnOf[constraint] = owner[constraint] < 0 ? numberOfColumns++ : -1;
         }
 
-        // Create the row headers.
-        int matrixRowIndex = 0;
-        for (int cellIndex = 0; cellIndex < size * size; cellIndex++) {
-            for (int value = 0; value < size; value++) {
-                Node rowHeader = new Node();
-                rowHeader.applicationData = matrixRowIndex;
-                addRowHeader(rowHeader);
-                rowHeader.columnHeader = getColumnHeader(cellIndex);
-                rowHeader.columnHeader.append(rowHeader);
-                matrixRowIndex++;
+        // Only the moves into empty cells that no clue rules out get a row.
+        boolean[] live = new boolean[numberOfCells * gridSize];
+        int numberOfNodes = 0;
+        for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++) {
+            if (owner[cellIndex] >= 0) {
+                continue;
+            }
+            for (int value = 0; value < gridSize; value++) {
+                boolean open = true;
+                for (int i = 0; i < cellHouses[cellIndex].length && open; i++) {
+                    open = owner[numberOfCells + cellHouses[cellIndex][i] * gridSize + value] < 0;
+                }
+                if (open) {
+                    live[cellIndex * gridSize + value] = true;
+                    numberOfNodes += 1 + cellHouses[cellIndex].length;
+                }
             }
         }
+        ensureCapacity(1 + numberOfColumns + numberOfNodes, numberOfCells * gridSize);
+        createColumns(numberOfColumns);
+
+        // The nodes are added in the same order as in the full matrix, so the search is the same.
+        for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++) {
+            for (int value = 0; value < gridSize; value++) {
+                int row = cellIndex * gridSize + value;
+                if (live[row]) {
+                    addNode(row, columnOf[cellIndex]);
+                    for (int i = 0; i < cellHouses[cellIndex].length; i++) {
+                        addNode(row, columnOf[
+                                numberOfCells + cellHouses[cellIndex][i] * gridSize + value]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the clues that were skipped when the matrix was built, because they conflict with
+     * clues before them.
+     *
+     * @return  The clues that were skipped. Empty if every clue was placed, or if the matrix was
+     *          not built from clues.
+     */
+    public List<GivenConflict> getClueConflicts() {
+        return clueConflicts;
+    }
+
+    /**
+     * Gets the matrix template for a grid layout, building it if it is not cached yet.
+     *
+     * @param geometry  The geometry of a sudoku grid.
+     * @return          The matrix template for that layout.
+     */
+    private static Template getTemplate(final GridGeometry geometry) {
+        synchronized (TEMPLATES) {
+            Template template = (Template) TEMPLATES.get(geometry);
+            if (template == null) {
+                template = new Template(geometry);
+                TEMPLATES.put(geometry, template);
+            }
+            return template;
+        }
     }
 
     /**
-     * Creates a new <code>ColumnHeader</code> and adds it to the dancing links matrix.
+     * Adds a listener to be notified with a filled-in grid whenever a solution is found.
      *
-     * @return  The new <code>ColumnHeader</code>.
+     * @param listener  The listener to be added.
      */
-    public final ColumnHeader createColumnHeader() {
-        ColumnHeader root = getRoot();
-        ColumnHeader columnHeader = new ColumnHeader();
-        columnHeader.left = root.left;
-        columnHeader.right = root;
-        root.left.right = columnHeader;
-        root.left = columnHeader;
-        addColumnHeader(columnHeader);
-        return columnHeader;
+    public void addGridSolutionListener(final GridSolutionListener listener) {
+        gridListeners.add(listener);
+    }
+
+    /**
+     * Writes the value of each row of the solution into the reusable solution grid, then notifies
+     * the <code>GridSolutionListener</code>s.
+     *
+     * @param rows   The indexes of the rows that make up the solution.
+     * @param count  The number of rows in the solution.
+     * @return       <code>true</code> if solving has been completed.
+     */
+    protected boolean solutionFound(final int[] rows, final int count) {
+        if (gridListeners.isEmpty()) {
+            return false;
+        }
+
+        final int[] cellOfRow = template.cellOfRow;
+        final int[] valueOfRow = template.valueOfRow;
+        System.arraycopy(clues, 0, solutionGrid, 0, clues.length);
+        for (int i = 0; i < count; i++) {
+            solutionGrid[cellOfRow[rows[i]]] = valueOfRow[rows[i]];
+        }
+
+        boolean finished = false;
+        for (int i = 0; i < gridListeners.size(); i++) {
+            finished |= gridListeners.get(i).solutionFound(solutionGrid);
+        }
+        return finished;
+    }
+
+    /**
+     * Decodes a solution into a new filled-in grid, for the <code>SolutionIterator</code>.
+     *
+     * @param rows   The indexes of the rows that make up the solution.
+     * @param count  The number of rows in the solution.
+     * @return       A new array containing the solved sudoku.
+     */
+    protected int[] decodeSolution(final int[] rows, final int count) {
+        final int[] grid = clues.clone();
+        final int[] cellOfRow = template.cellOfRow;
+        final int[] valueOfRow = template.valueOfRow;
+        for (int i = 0; i < count; i++) {
+            grid[cellOfRow[rows[i]]] = valueOfRow[rows[i]];
+        }
+        return grid;
     }
 
     /**
@@ -140,21 +397,250 @@ public class SudokuSolver extends AbstractDLXSolver {
      * numbers to the solution and removes their corresponding entries from the dancing links
      * matrix.
      *
+     * <p>
+     * Givens that conflict with givens placed before them are skipped, so the matrix stays
+     * consistent and the solver can still be used. The conflicts are returned.
+     *
      * @param puzzleGrid  An array of integers containing an unsolved sudoku.
+     * @return            The givens that were skipped because of conflicts. Empty if every given
+     *                    was placed.
      */
-    public final void placeGivens(final int[] puzzleGrid) {
-        for (int row = 0; row < gridSize; row++) {
-            for (int column = 0; column < gridSize; column++) {
-                int cellIndex = row * gridSize + column;
-                if (puzzleGrid[cellIndex] > 0) {
-                    addRowToSolution(cellIndex * gridSize + (puzzleGrid[cellIndex] - 1));
+    public final List<GivenConflict> placeGivens(final int[] puzzleGrid) {
+        List<GivenConflict> conflicts = new ArrayList<GivenConflict>();
+        for (int cellIndex = 0; cellIndex < givens.length; cellIndex++) {
+            if (puzzleGrid[cellIndex] > 0) {
+                GivenConflict conflict = pushGiven(cellIndex, puzzleGrid[cellIndex]);
+                if (conflict != null) {
+                    conflicts.add(conflict);
                 }
             }
         }
+        return conflicts;
+    }
+
+    /**
+     * Places a single given into the matrix, so that the next search solves the puzzle with one
+     * more clue. A given that the cell already had is replaced. A given that conflicts with
+     * another given is not placed, and the cell keeps its previous given. The clues that the
+     * matrix was built without cannot be replaced.
+     *
+     * @param cellIndex  The index of the cell (<code>row * gridSize + column</code>).
+     * @param value      The value of the given, from 1 to the size of the grid.
+     * @return           The conflict that kept the given from being placed, or <code>null</code>
+     *                   if it was placed.
+     */
+    public GivenConflict pushGiven(final int cellIndex, final int value) {
+        if (value < 1 || value > gridSize) {
+            throw new IllegalArgumentException("Invalid value: " + value);
+        }
+        if (clues[cellIndex] != 0) {
+            return clues[cellIndex] == value
+                    ? null : new GivenConflict(cellIndex, value, cellIndex, clues[cellIndex]);
+        }
+        int row = cellIndex * gridSize + (value - 1);
+        if (!hasRow(row)) {
+            return new GivenConflict(cellIndex, value, findClue(cellIndex, value), value);
+        }
+
+        int previous = givens[cellIndex];
+        if (previous == value) {
+            return null;
+        }
+        if (previous != 0) {
+            removeGiven(cellIndex);
+        }
+
+        if (!addRowToSolution(row)) {
+            int other = findConflictingRow(row);
+            if (previous != 0) {
+                addRowToSolution(cellIndex * gridSize + (previous - 1));
+                givens[cellIndex] = previous;
+            }
+            return new GivenConflict(
+                    cellIndex, value, template.cellOfRow[other], template.valueOfRow[other]);
+        }
+        givens[cellIndex] = value;
+        return null;
+    }
+
+    /**
+     * Finds the clue that rules out a value in a cell.
+     *
+     * @param cellIndex  The index of the cell.
+     * @param value      The value, from 1 to the size of the grid.
+     * @return           The index of a cell in one of the houses of the cell whose clue is the
+     *                   value, or -1 if there is none.
+     */
+    private int findClue(final int cellIndex, final int value) {
+        int[] houses = template.cellHouses[cellIndex];
+        for (int i = 0; i < houses.length; i++) {
+            int[] cells = template.houses[houses[i]];
+            for (int j = 0; j < cells.length; j++) {
+                if (clues[cells[j]] == value) {
+                    return cells[j];
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the given that was placed last. This is the cheapest way to take back a clue.
+     *
+     * @return  The index of the cell whose given was removed.
+     * @throws IllegalStateException  If there are no givens.
+     */
+    public int popGiven() {
+        int cellIndex = template.cellOfRow[removeLastRowFromSolution()];
+        givens[cellIndex] = 0;
+        return cellIndex;
+    }
+
+    /**
+     * Removes the given of a cell, so that the next search treats the cell as empty. The givens
+     * placed after it are taken out and put back, so the cost grows with their number. The clues
+     * that the matrix was built without cannot be removed.
+     *
+     * @param cellIndex  The index of the cell (<code>row * gridSize + column</code>).
+     * @return           <code>true</code> if the cell had a given. Otherwise, <code>false</code>.
+     */
+    public boolean removeGiven(final int cellIndex) {
+        int value = givens[cellIndex];
+        if (value == 0) {
+            return false;
+        }
+        removeRowFromSolution(cellIndex * gridSize + (value - 1));
+        givens[cellIndex] = 0;
+        return true;
     }
 
-    /** Resets the dancing links matrix by removing all of the givens. */
+    /**
+     * Gets the given of a cell.
+     *
+     * @param cellIndex  The index of the cell (<code>row * gridSize + column</code>).
+     * @return           The value of the given (or of the clue the matrix was built without), or
+     *                   0 if the cell has no given.
+     */
+    public int getGiven(final int cellIndex) {
+        return clues[cellIndex] != 0 ? clues[cellIndex] : givens[cellIndex];
+    }
+
+    /**
+     * Resets the dancing links matrix by removing all of the givens. The clues that the matrix
+     * was built without stay.
+     */
     public void removeAllGivens() {
         removeAllRowsFromSolution();
+        Arrays.fill(givens, 0);
+    }
+
+    /** {@inheritDoc} */
+    public void reset() {
+        super.reset();
+        Arrays.fill(givens, 0);
+    }
+
+
+    /** The shared, immutable parts of every solver for one grid layout. */
+    private static final class Template {
+
+        /** The size of the grid. */
+        private final int gridSize;
+
+        /** The (sorted) indexes of the cells in each house. */
+        private final int[][] houses;
+
+        /** The indexes of the houses of each cell, in ascending order. */
+        private final int[][] cellHouses;
+
+        /** The geometry of the grid. */
+        private final GridGeometry geometry;
+
+        /** The dancing links matrix, or <code>null</code> until a solver needs it. */
+        private Matrix matrix;
+
+        /** The index of the cell into which each matrix row places a value. */
+        private final int[] cellOfRow;
+
+        /** The value that each matrix row places into its cell. */
+        private final int[] valueOfRow;
+
+        /**
+         * Constructs the <code>Template</code> of a grid layout.
+         *
+         * @param geometry  The geometry of a sudoku grid.
+         */
+        Template(final GridGeometry geometry) {
+            this.geometry = geometry;
+            gridSize = geometry.getGridSize();
+            houses = geometry.getHouses();
+            cellHouses = geometry.getCellHouses();
+
+            int numberOfRows = gridSize * gridSize * gridSize;
+            cellOfRow = new int[numberOfRows];
+            valueOfRow = new int[numberOfRows];
+            for (int row = 0; row < numberOfRows; row++) {
+                cellOfRow[row] = row / gridSize;
+                valueOfRow[row] = row % gridSize + 1;
+            }
+        }
+
+        /**
+         * Gets the full dancing links matrix, building it the first time it is needed. Solvers
+         * built from clues never need it.
+         *
+         * @return  The dancing links matrix.
+         */
+        synchronized Matrix getMatrix() {
+            if (matrix == null) {
+                matrix = new Builder(geometry).createMatrix();
+            }
+            return matrix;
+        }
+    }
+
+    /** Builds the dancing links matrix of a grid layout, node by node. */
+    private static final class Builder extends ArrayDLXSolver {
+
+        /**
+         * Constructs a <code>Builder</code> and builds the matrix.
+         *
+         * @param geometry  The geometry of the grid.
+         */
+        Builder(final GridGeometry geometry) {
+            int gridSize = geometry.getGridSize();
+            int numberOfCells = gridSize * gridSize;
+            int[][] houses = geometry.getHouses();
+
+            // Every row has one node for its cell plus (usually) one for each house of the cell.
+            int numberOfColumns = numberOfCells + houses.length * gridSize;
+            int nodesPerRow = 1 + houses.length / gridSize;
+            ensureCapacity(1 + numberOfColumns + numberOfCells * gridSize * nodesPerRow,
+                    numberOfCells * gridSize);
+            createColumns(numberOfColumns);
+
+            // The first node of each row lies in the column of the row's cell.
+            int matrixRowIndex = 0;
+            for (int cellIndex = 0; cellIndex < numberOfCells; cellIndex++) {
+                for (int value = 0; value < gridSize; value++) {
+                    addNode(matrixRowIndex, cellIndex);
+                    matrixRowIndex++;
+                }
+            }
+
+            /*
+             * Each house has one column for each value. Each column represents the placement of a
+             * value in the house. A house is "covered" when it contains each value exactly once.
+             */
+            int matrixColumnIndex = numberOfCells;
+            for (int h = 0; h < houses.length; h++) {
+                for (int value = 0; value < gridSize; value++) {
+                    for (int i = 0; i < houses[h].length; i++) {
+                        addNode(houses[h][i] * gridSize + value, matrixColumnIndex + value);
+                    }
+                }
+                matrixColumnIndex += gridSize;
+            }
+        }
     }
 }
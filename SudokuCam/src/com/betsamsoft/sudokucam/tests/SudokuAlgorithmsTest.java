@@ -6,6 +6,8 @@ import android.util.Log;
 
 import com.betsamsoft.sudokucam.algorithms.SudokuBackTrackingAlgorithm;
 import com.betsamsoft.sudokucam.algorithms.SudokuBackTrackingRecursiveAlgorithm;
+import com.betsamsoft.sudokucam.algorithms.SudokuBitboardAlgorithm;
+import com.betsamsoft.sudokucam.algorithms.SudokuBitmaskAlgorithm;
 import com.betsamsoft.sudokucam.algorithms.SudokuDLXAlgorithm;
 import com.betsamsoft.sudokucam.algorithms.SudokuHumanAlgorithm;
 
@@ -140,6 +142,38 @@ public class SudokuAlgorithmsTest extends Activity {
 		// ------------------------------------------------------------------
 		
 		
+		// ------------------------------------------------------------------
+		ALGORITHM_NAME = "BitmaskAlgorithm";
+		// ------------------------------------------------------------------
+		SudokuBitmaskAlgorithm bma = new SudokuBitmaskAlgorithm(testRiddle);
+		Log.d(TAG, ALGORITHM_NAME +" Start");
+		res = bma.solve();	// \todo: solve riddle in own thread!
+		Log.d(TAG, ALGORITHM_NAME +" End");
+		if( res == true ) {
+			Log.d(TAG, ALGORITHM_NAME +" successful!");
+		}
+		else {
+			Log.d(TAG, ALGORITHM_NAME +" failed!");
+		}
+		// ------------------------------------------------------------------
+		
+		
+		// ------------------------------------------------------------------
+		ALGORITHM_NAME = "BitboardAlgorithm";
+		// ------------------------------------------------------------------
+		SudokuBitboardAlgorithm bba = new SudokuBitboardAlgorithm(testRiddle);
+		Log.d(TAG, ALGORITHM_NAME +" Start");
+		res = bba.solve();	// \todo: solve riddle in own thread!
+		Log.d(TAG, ALGORITHM_NAME +" End");
+		if( res == true ) {
+			Log.d(TAG, ALGORITHM_NAME +" successful!");
+		}
+		else {
+			Log.d(TAG, ALGORITHM_NAME +" failed!");
+		}
+		// ------------------------------------------------------------------
+		
+		
 		finish();
 	}
 }